@@ -0,0 +1,391 @@
+package bitboard;
+
+/**
+ * class of static helpers and precomputed attack tables for working with
+ * bitboards, a bitboard is a long where bit n is set when square n is in the
+ * set, squares are numbered rank * 8 + file the same way Coordinate ids are
+ *
+ * @author Jackson Shortell
+ */
+public final class Bitboard {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_3 = RANK_1 << 16;
+    public static final long RANK_6 = RANK_1 << 40;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    /**
+     * squares a knight on a given square attacks
+     */
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    /**
+     * squares a king on a given square attacks
+     */
+    public static final long[] KING_ATTACKS = new long[64];
+    /**
+     * squares a pawn of a given color on a given square attacks, indexed by
+     * [color][square]
+     */
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    /**
+     * the same leaper tables as arrays of square indices, for walking the targets
+     * of a piece without scanning bits
+     */
+    public static final int[][] KNIGHT_TARGETS = new int[64][];
+    public static final int[][] KING_TARGETS = new int[64][];
+    public static final int[][][] PAWN_TARGETS = new int[2][64][];
+
+    /**
+     * squares strictly between two squares on the same rank, file or diagonal, 0
+     * when they do not share a line, indexed by [from][to]
+     */
+    public static final long[][] BETWEEN = new long[64][64];
+    /**
+     * the whole rank, file or diagonal through two squares edge to edge, 0 when
+     * they do not share a line, indexed by [from][to]
+     */
+    public static final long[][] LINE = new long[64][64];
+
+    /**
+     * file and rank steps of the 8 ray directions in the order N, NE, E, SE, S,
+     * SW, W, NW
+     */
+    private static final int[] FILE_STEP = { 0, 1, 1, 1, 0, -1, -1, -1 };
+    private static final int[] RANK_STEP = { 1, 1, 0, -1, -1, -1, 0, 1 };
+
+    private static final int NORTH = 0;
+    private static final int NORTH_EAST = 1;
+    private static final int EAST = 2;
+    private static final int SOUTH_EAST = 3;
+    private static final int SOUTH = 4;
+    private static final int SOUTH_WEST = 5;
+    private static final int WEST = 6;
+    private static final int NORTH_WEST = 7;
+
+    /**
+     * every square reached by sliding from a square to the edge of the board,
+     * indexed by [direction][square]
+     */
+    private static final long[][] RAYS = new long[8][64];
+
+    /**
+     * seeds of the xorshift generator that proposes magics, one per rank, these
+     * seeds reach a working magic for every square after few tries so building
+     * the tables stays fast
+     */
+    private static final long[] MAGIC_SEEDS = { 728, 10316, 55013, 32803, 12281, 15100, 16645, 255 };
+
+    /**
+     * squares whose occupancy can block a rook or bishop on a square, the edge
+     * square at the end of each ray never blocks anything beyond it so it is left
+     * out
+     */
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    /**
+     * multipliers that map every blocker subset of a mask to a distinct table
+     * index, or to a shared one only when the attacks are the same
+     */
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    /**
+     * 64 minus the number of bits in each mask
+     */
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    /**
+     * where each square's part of the attack table starts
+     */
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    /**
+     * attacks for every blocker subset of every square, laid out back to back
+     */
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    private Bitboard() {
+    }
+
+    /**
+     * @param square passes in a square index
+     * @return returns a bitboard with only that square set
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @param file passes in a file index 0-7
+     * @param rank passes in a rank index 0-7
+     * @return returns the square index
+     */
+    public static int square(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    /**
+     * @param bitboard passes in a non empty bitboard
+     * @return returns the index of the lowest set square
+     */
+    public static int lowestSquare(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * gets the squares a rook on a square attacks given which squares are occupied,
+     * the first occupied square along each ray is included, a single magic table
+     * lookup
+     *
+     * @param square   passes in the square of the rook
+     * @param occupied passes in a bitboard of every occupied square
+     * @return returns a bitboard of attacked squares
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSETS[square]
+                + (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * gets the squares a bishop on a square attacks given which squares are
+     * occupied, the first occupied square along each ray is included, a single
+     * magic table lookup
+     *
+     * @param square   passes in the square of the bishop
+     * @param occupied passes in a bitboard of every occupied square
+     * @return returns a bitboard of attacked squares
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSETS[square]
+                + (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * @param square   passes in the square of the queen
+     * @param occupied passes in a bitboard of every occupied square
+     * @return returns a bitboard of attacked squares
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * rook attacks found by walking the rays, only used to build the magic table
+     */
+    private static long slidingRookAttacks(int square, long occupied) {
+        return positiveRay(NORTH, square, occupied) | positiveRay(EAST, square, occupied)
+                | negativeRay(SOUTH, square, occupied) | negativeRay(WEST, square, occupied);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * bishop attacks found by walking the rays, only used to build the magic table
+     */
+    private static long slidingBishopAttacks(int square, long occupied) {
+        return positiveRay(NORTH_EAST, square, occupied) | positiveRay(NORTH_WEST, square, occupied)
+                | negativeRay(SOUTH_EAST, square, occupied) | negativeRay(SOUTH_WEST, square, occupied);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * finds a magic for one square by trying sparse random numbers until every
+     * blocker subset of the mask lands on an index holding the same attacks, then
+     * writes those attacks into the table
+     */
+    private static long findMagic(long mask, int shift, long[] table, int offset, boolean rook, int square) {
+        int size = 1 << (64 - shift);
+        long[] subsets = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            subsets[i] = subset;
+            attacks[i] = rook ? slidingRookAttacks(square, subset) : slidingBishopAttacks(square, subset);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] seed = { MAGIC_SEEDS[square >>> 3] };
+        int[] usedBy = new int[size];
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            long magic = nextRandom(seed) & nextRandom(seed) & nextRandom(seed);
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean works = true;
+            for (int i = 0; i < size && works; i++) {
+                int index = (int) ((subsets[i] * magic) >>> shift);
+                if (usedBy[index] != attempt) {
+                    usedBy[index] = attempt;
+                    table[offset + index] = attacks[i];
+                } else if (table[offset + index] != attacks[i]) {
+                    works = false;
+                }
+            }
+            if (works) {
+                return magic;
+            }
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * fills the masks, magics and attack table of rooks or bishops, returns the
+     * table
+     */
+    private static long[] buildMagics(long[] masks, long[] magics, int[] shifts, int[] offsets, boolean rook) {
+        long edges = FILE_A | FILE_H | RANK_1 | RANK_8;
+        int total = 0;
+        for (int square = 0; square < 64; square++) {
+            long attacks = rook ? slidingRookAttacks(square, 0L) : slidingBishopAttacks(square, 0L);
+            long mask;
+            if (rook) {
+                int file = square & 7;
+                int rank = square >>> 3;
+                long fileEdges = (RANK_1 | RANK_8) & ~(RANK_1 << (8 * rank));
+                long rankEdges = (FILE_A | FILE_H) & ~(FILE_A << file);
+                mask = attacks & ~fileEdges & ~rankEdges;
+            } else {
+                mask = attacks & ~edges;
+            }
+            masks[square] = mask;
+            shifts[square] = 64 - Long.bitCount(mask);
+            offsets[square] = total;
+            total += 1 << Long.bitCount(mask);
+        }
+
+        long[] table = new long[total];
+        for (int square = 0; square < 64; square++) {
+            magics[square] = findMagic(masks[square], shifts[square], table, offsets[square], rook, square);
+        }
+        return table;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * xorshift64* step, the state is kept in a one element array
+     */
+    private static long nextRandom(long[] state) {
+        long s = state[0];
+        s ^= s >>> 12;
+        s ^= s << 25;
+        s ^= s >>> 27;
+        state[0] = s;
+        return s * 2685821657736338717L;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * slides along a ray whose square indices increase and stops at the first
+     * blocker
+     */
+    private static long positiveRay(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * slides along a ray whose square indices decrease and stops at the first
+     * blocker
+     */
+    private static long negativeRay(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    /**
+     * @param bitboard passes in a bitboard
+     * @return returns the indices of its set squares in increasing order
+     */
+    public static int[] squares(long bitboard) {
+        int[] squares = new int[Long.bitCount(bitboard)];
+        for (int i = 0; bitboard != 0; i++) {
+            squares[i] = Long.numberOfTrailingZeros(bitboard);
+            bitboard &= bitboard - 1;
+        }
+        return squares;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * builds a bitboard from a list of file and rank offsets from a square, offsets
+     * that land off the board are skipped
+     */
+    private static long offsets(int square, int[][] steps) {
+        int file = square & 7;
+        int rank = square >>> 3;
+        long bitboard = 0L;
+        for (int[] step : steps) {
+            int toFile = file + step[0];
+            int toRank = rank + step[1];
+            if (toFile >= 0 && toFile < 8 && toRank >= 0 && toRank < 8) {
+                bitboard |= bit(square(toFile, toRank));
+            }
+        }
+        return bitboard;
+    }
+
+    /**
+     * fills the leaper, ray, line and magic tables once when the class is loaded
+     */
+    static {
+        int[][] knightSteps = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 },
+                { -1, 2 } };
+        int[][] kingSteps = { { 0, 1 }, { 1, 1 }, { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, -1 }, { -1, 0 },
+                { -1, 1 } };
+        int[][] whitePawnSteps = { { -1, 1 }, { 1, 1 } };
+        int[][] blackPawnSteps = { { -1, -1 }, { 1, -1 } };
+
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsets(square, knightSteps);
+            KING_ATTACKS[square] = offsets(square, kingSteps);
+            PAWN_ATTACKS[0][square] = offsets(square, whitePawnSteps);
+            PAWN_ATTACKS[1][square] = offsets(square, blackPawnSteps);
+            KNIGHT_TARGETS[square] = squares(KNIGHT_ATTACKS[square]);
+            KING_TARGETS[square] = squares(KING_ATTACKS[square]);
+            PAWN_TARGETS[0][square] = squares(PAWN_ATTACKS[0][square]);
+            PAWN_TARGETS[1][square] = squares(PAWN_ATTACKS[1][square]);
+
+            for (int direction = 0; direction < 8; direction++) {
+                int file = (square & 7) + FILE_STEP[direction];
+                int rank = (square >>> 3) + RANK_STEP[direction];
+                long ray = 0L;
+                while (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+                    ray |= bit(square(file, rank));
+                    file += FILE_STEP[direction];
+                    rank += RANK_STEP[direction];
+                }
+                RAYS[direction][square] = ray;
+            }
+        }
+
+        for (int from = 0; from < 64; from++) {
+            for (int direction = 0; direction < 8; direction++) {
+                int opposite = (direction + 4) & 7;
+                long line = RAYS[direction][from] | RAYS[opposite][from] | bit(from);
+                for (long ray = RAYS[direction][from]; ray != 0; ray &= ray - 1) {
+                    int to = Long.numberOfTrailingZeros(ray);
+                    BETWEEN[from][to] = RAYS[direction][from] & RAYS[opposite][to];
+                    LINE[from][to] = line;
+                }
+            }
+        }
+
+        ROOK_TABLE = buildMagics(ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, true);
+        BISHOP_TABLE = buildMagics(BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, false);
+    }
+
+}
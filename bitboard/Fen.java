@@ -0,0 +1,296 @@
+package bitboard;
+
+import model.Chess;
+
+/**
+ * class that reads and writes Forsyth-Edwards Notation for a Position or a
+ * Chess, the parser makes a single pass over the characters without splitting
+ * or regular expressions so loading large files of positions stays cheap
+ *
+ * @author Jackson Shortell
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_CHARS = "PNBRQKpnbrqk";
+    /**
+     * castling rights in the order of their FEN letters, KQkq
+     */
+    private static final int[] CASTLING_FLAGS = { Position.WHITE_KING_SIDE, Position.WHITE_QUEEN_SIDE,
+            Position.BLACK_KING_SIDE, Position.BLACK_QUEEN_SIDE };
+
+    private Fen() {
+    }
+
+    /**
+     * builds a Position from a FEN string, the move clocks may be left off, a
+     * castling right whose King or Rook is not on its home square is dropped so
+     * the Position never castles with a missing piece
+     *
+     * @param fen passes in a FEN string
+     * @return returns the Position described by the string
+     * @throws IllegalArgumentException if the string is not valid FEN or the en
+     *                                  passant square does not follow a double
+     *                                  pawn push of the side not to move
+     */
+    public static Position toPosition(CharSequence fen) {
+        Position position = new Position();
+        int length = fen.length();
+        int index = skipSpaces(fen, 0);
+
+        int file = 0;
+        int rank = 7;
+        while (index < length && fen.charAt(index) != ' ') {
+            char c = fen.charAt(index++);
+            if (c == '/') {
+                if (file != 8) {
+                    throw invalid(fen, "rank " + (rank + 1) + " does not have 8 squares");
+                }
+                file = 0;
+                rank--;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = PIECE_CHARS.indexOf(c);
+                if (piece < 0 || file > 7 || rank < 0) {
+                    throw invalid(fen, "bad piece placement");
+                }
+                position.putPiece(piece, Bitboard.square(file, rank));
+                file++;
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw invalid(fen, "bad piece placement");
+        }
+        if (Long.bitCount(position.getPieces(Position.WHITE, Position.KING)) != 1
+                || Long.bitCount(position.getPieces(Position.BLACK, Position.KING)) != 1) {
+            throw invalid(fen, "each side needs exactly one king");
+        }
+
+        index = skipSpaces(fen, index);
+        if (index >= length) {
+            throw invalid(fen, "missing side to move");
+        }
+        char side = fen.charAt(index++);
+        if (side == 'w') {
+            position.setSideToMove(Position.WHITE);
+        } else if (side == 'b') {
+            position.setSideToMove(Position.BLACK);
+        } else {
+            throw invalid(fen, "bad side to move");
+        }
+
+        index = skipSpaces(fen, index);
+        int rights = 0;
+        while (index < length && fen.charAt(index) != ' ') {
+            switch (fen.charAt(index++)) {
+                case 'K':
+                    rights |= Position.WHITE_KING_SIDE;
+                    break;
+                case 'Q':
+                    rights |= Position.WHITE_QUEEN_SIDE;
+                    break;
+                case 'k':
+                    rights |= Position.BLACK_KING_SIDE;
+                    break;
+                case 'q':
+                    rights |= Position.BLACK_QUEEN_SIDE;
+                    break;
+                case '-':
+                    break;
+                default:
+                    throw invalid(fen, "bad castling rights");
+            }
+        }
+        position.setCastlingRights(possibleRights(position, rights));
+
+        index = skipSpaces(fen, index);
+        if (index < length && fen.charAt(index) != '-') {
+            if (index + 1 >= length) {
+                throw invalid(fen, "bad en passant square");
+            }
+            int epFile = fen.charAt(index) - 'a';
+            int epRank = fen.charAt(index + 1) - '1';
+            if (epFile < 0 || epFile > 7 || epRank != (position.getSideToMove() == Position.WHITE ? 5 : 2)) {
+                throw invalid(fen, "bad en passant square");
+            }
+            int epSquare = Bitboard.square(epFile, epRank);
+            if (!isDoublePushTarget(position, epSquare)) {
+                throw invalid(fen, "no pawn to capture en passant on " + PackedMove.squareToString(epSquare));
+            }
+            position.setEnPassant(epSquare);
+            index += 2;
+        } else {
+            index++;
+        }
+
+        index = skipSpaces(fen, index);
+        if (index < length) {
+            int end = skipDigits(fen, index);
+            position.setHalfmoveClock(parseNumber(fen, index, end));
+            index = skipSpaces(fen, end);
+            if (index < length) {
+                end = skipDigits(fen, index);
+                position.setFullmoveNumber(Math.max(1, parseNumber(fen, index, end)));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the castling rights whose King and Rook are still on their home
+     * squares
+     */
+    private static int possibleRights(Position position, int rights) {
+        for (int i = 0; i < CASTLING_FLAGS.length; i++) {
+            int color = i < 2 ? Position.WHITE : Position.BLACK;
+            int rank = color == Position.WHITE ? 0 : 7;
+            int rookFile = i % 2 == 0 ? 7 : 0;
+            if (position.getPiece(Bitboard.square(4, rank)) != color * 6 + Position.KING
+                    || position.getPiece(Bitboard.square(rookFile, rank)) != color * 6 + Position.ROOK) {
+                rights &= ~CASTLING_FLAGS[i];
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * checks that an en passant square was just passed over by a double pawn
+     * push, the pawn of the side not to move stands in front of it and the square
+     * and the one the pawn started from are empty
+     */
+    private static boolean isDoublePushTarget(Position position, int square) {
+        int enemy = position.getSideToMove() ^ 1;
+        int forward = enemy == Position.WHITE ? 8 : -8;
+        return position.getPiece(square + forward) == enemy * 6 + Position.PAWN
+                && position.getPiece(square) == Position.NONE && position.getPiece(square - forward) == Position.NONE;
+    }
+
+    /**
+     * writes a Position as a FEN string
+     *
+     * @param position passes in a Position
+     * @return returns a FEN string
+     */
+    public static String fromPosition(Position position) {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank > -1; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = position.getPiece(Bitboard.square(file, rank));
+                if (piece == Position.NONE) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(PIECE_CHARS.charAt(piece));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(position.getSideToMove() == Position.WHITE ? " w " : " b ");
+
+        int rights = position.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            if ((rights & Position.WHITE_KING_SIDE) != 0) {
+                fen.append('K');
+            }
+            if ((rights & Position.WHITE_QUEEN_SIDE) != 0) {
+                fen.append('Q');
+            }
+            if ((rights & Position.BLACK_KING_SIDE) != 0) {
+                fen.append('k');
+            }
+            if ((rights & Position.BLACK_QUEEN_SIDE) != 0) {
+                fen.append('q');
+            }
+        }
+
+        int enPassant = position.getEnPassant();
+        fen.append(' ').append(enPassant == Position.NONE ? "-" : PackedMove.squareToString(enPassant));
+        fen.append(' ').append(position.getHalfmoveClock());
+        fen.append(' ').append(position.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    /**
+     * builds the object model from a FEN string, castling rights become the
+     * Unmoved flags of the King and Rooks and the en passant square becomes the
+     * Board's last move
+     *
+     * @param fen passes in a FEN string
+     * @return returns a Chess in the position described by the string
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static Chess toChess(CharSequence fen) {
+        return new Chess(toPosition(fen));
+    }
+
+    /**
+     * writes the current position of the object model as a FEN string
+     *
+     * @param chess passes in an instance of Chess
+     * @return returns a FEN string
+     */
+    public static String fromChess(Chess chess) {
+        return fromPosition(new Position(chess));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the index of the first non space character at or after index
+     */
+    private static int skipSpaces(CharSequence fen, int index) {
+        while (index < fen.length() && fen.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the index of the first non digit character at or after index
+     */
+    private static int skipDigits(CharSequence fen, int index) {
+        while (index < fen.length() && fen.charAt(index) >= '0' && fen.charAt(index) <= '9') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * parses the digits between start and end as an int
+     */
+    private static int parseNumber(CharSequence fen, int start, int end) {
+        if (start == end) {
+            throw invalid(fen, "bad move clock");
+        }
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            number = number * 10 + (fen.charAt(i) - '0');
+        }
+        return number;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * builds the exception thrown for a malformed FEN string
+     */
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("invalid FEN \"" + fen + "\": " + reason);
+    }
+
+}
@@ -0,0 +1,514 @@
+package bitboard;
+
+/**
+ * class that generates the legal moves of a Position into a caller supplied int
+ * array of packed moves, moves are generated for every piece at once with
+ * bitboard shifts and attack tables instead of square by square, pins and checks
+ * are worked out before generating so no move has to be tried on the board
+ *
+ * @author Jackson Shortell
+ */
+public final class MoveGenerator {
+
+    /**
+     * more moves than any legal chess position has, used to size move arrays
+     */
+    public static final int MAX_MOVES = 256;
+
+    private static final long WHITE_KING_SIDE_PATH = Bitboard.bit(5) | Bitboard.bit(6);
+    private static final long WHITE_QUEEN_SIDE_PATH = Bitboard.bit(1) | Bitboard.bit(2) | Bitboard.bit(3);
+    private static final long BLACK_KING_SIDE_PATH = WHITE_KING_SIDE_PATH << 56;
+    private static final long BLACK_QUEEN_SIDE_PATH = WHITE_QUEEN_SIDE_PATH << 56;
+
+    /**
+     * kinds of legal moves to write, captures and promotions are noisy, every
+     * other move including castling is quiet
+     */
+    private static final int NOISY = 1;
+    private static final int QUIET = 2;
+    private static final int ALL = NOISY | QUIET;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * fills a MoveList with every legal move of the side to move
+     *
+     * @param position passes in the Position to generate moves for
+     * @param list     passes in the MoveList to fill, it is cleared first
+     */
+    public static void generateLegalMoves(Position position, MoveList list) {
+        list.setSize(generateLegalMoves(position, list.getMoves()));
+    }
+
+    /**
+     * fills a MoveList with every pseudo legal move of the side to move
+     *
+     * @param position passes in the Position to generate moves for
+     * @param list     passes in the MoveList to fill, it is cleared first
+     */
+    public static void generatePseudoLegalMoves(Position position, MoveList list) {
+        list.setSize(generatePseudoLegalMoves(position, list.getMoves()));
+    }
+
+    /**
+     * fills an array with every legal move of the side to move, the pieces
+     * pinned to the king and the pieces giving check are found first so every
+     * move written is legal without making it, in check only king moves and
+     * moves that capture the checker or block its line are written
+     *
+     * @param position passes in the Position to generate moves for
+     * @param moves    passes in an array of at least MAX_MOVES ints to fill
+     * @return returns the number of moves written to the array
+     */
+    public static int generateLegalMoves(Position position, int[] moves) {
+        return generateLegal(position, moves, ALL, -1L);
+    }
+
+    /**
+     * fills a MoveList with the legal captures and promotions of the side to move,
+     * the moves a quiescence search looks at
+     *
+     * @param position passes in the Position to generate moves for
+     * @param list     passes in the MoveList to fill, it is cleared first
+     */
+    public static void generateLegalCaptures(Position position, MoveList list) {
+        list.setSize(generateLegalCaptures(position, list.getMoves()));
+    }
+
+    /**
+     * fills an array with the legal captures and promotions of the side to move
+     *
+     * @param position passes in the Position to generate moves for
+     * @param moves    passes in an array of at least MAX_MOVES ints to fill
+     * @return returns the number of moves written to the array
+     */
+    public static int generateLegalCaptures(Position position, int[] moves) {
+        return generateLegal(position, moves, NOISY, -1L);
+    }
+
+    /**
+     * fills an array with the legal moves of the side to move that are neither
+     * captures nor promotions, castling included
+     *
+     * @param position passes in the Position to generate moves for
+     * @param moves    passes in an array of at least MAX_MOVES ints to fill
+     * @return returns the number of moves written to the array
+     */
+    public static int generateLegalQuiets(Position position, int[] moves) {
+        return generateLegal(position, moves, QUIET, -1L);
+    }
+
+    /**
+     * determines if a packed move is legal in a Position, only the moves of the
+     * piece on the move's from square are generated, used to check moves that come
+     * from somewhere other than the generator such as the transposition table
+     *
+     * @param position passes in the Position
+     * @param move     passes in a packed move
+     * @param scratch  passes in an array of at least MAX_MOVES ints to use
+     * @return returns true if the move is legal
+     */
+    public static boolean isLegal(Position position, int move, int[] scratch) {
+        if (move == PackedMove.NONE) {
+            return false;
+        }
+        int count = generateLegal(position, scratch, ALL, Bitboard.bit(PackedMove.from(move)));
+        for (int i = 0; i < count; i++) {
+            if (scratch[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * writes the legal moves of a kind for the pieces on the from squares, using
+     * the pin and check masks
+     */
+    private static int generateLegal(Position position, int[] moves, int kind, long fromSquares) {
+        int color = position.getSideToMove();
+        int enemy = color ^ 1;
+        int king = position.getKingSquare(color);
+        long occupied = position.getOccupied();
+        long allowed = ((kind & NOISY) != 0 ? position.getOccupancy(enemy) : 0L)
+                | ((kind & QUIET) != 0 ? ~occupied : 0L);
+
+        int count = 0;
+        long kingTargets = (fromSquares & Bitboard.bit(king)) != 0 ? Bitboard.KING_ATTACKS[king] & allowed : 0L;
+        long withoutKing = occupied ^ Bitboard.bit(king);
+        while (kingTargets != 0) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if (attackersOf(position, to, enemy, withoutKing) == 0) {
+                count = addMoves(position, moves, count, king, Bitboard.bit(to));
+            }
+        }
+
+        long checkers = attackersOf(position, king, enemy, occupied);
+        if (Long.bitCount(checkers) > 1) {
+            return count;
+        }
+        long checkMask = checkers == 0 ? -1L
+                : checkers | Bitboard.BETWEEN[king][Long.numberOfTrailingZeros(checkers)];
+        long pinned = pinnedPieces(position, color, king);
+        long targets = allowed & checkMask;
+
+        long knights = position.getPieces(color, Position.KNIGHT) & ~pinned & fromSquares;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addMoves(position, moves, count, from, Bitboard.KNIGHT_ATTACKS[from] & targets);
+        }
+
+        long diagonals = (position.getPieces(color, Position.BISHOP) | position.getPieces(color, Position.QUEEN))
+                & fromSquares;
+        while (diagonals != 0) {
+            int from = Long.numberOfTrailingZeros(diagonals);
+            diagonals &= diagonals - 1;
+            count = addMoves(position, moves, count, from,
+                    Bitboard.bishopAttacks(from, occupied) & targets & pinRay(pinned, king, from));
+        }
+
+        long lines = (position.getPieces(color, Position.ROOK) | position.getPieces(color, Position.QUEEN))
+                & fromSquares;
+        while (lines != 0) {
+            int from = Long.numberOfTrailingZeros(lines);
+            lines &= lines - 1;
+            count = addMoves(position, moves, count, from,
+                    Bitboard.rookAttacks(from, occupied) & targets & pinRay(pinned, king, from));
+        }
+
+        count = generateLegalPawnMoves(position, moves, count, color, king, pinned, checkers, checkMask, kind,
+                fromSquares);
+        if (checkers == 0 && (kind & QUIET) != 0 && (fromSquares & Bitboard.bit(king)) != 0) {
+            count = generateCastlingMoves(position, moves, count, color, king);
+        }
+        return count;
+    }
+
+    /**
+     * fills an array with every move of the side to move that follows the piece
+     * movement rules, moves that leave the mover's own king attacked are included
+     * but castling through or out of check is not
+     *
+     * @param position passes in the Position to generate moves for
+     * @param moves    passes in an array of at least MAX_MOVES ints to fill
+     * @return returns the number of moves written to the array
+     */
+    public static int generatePseudoLegalMoves(Position position, int[] moves) {
+        int color = position.getSideToMove();
+        long own = position.getOccupancy(color);
+        long targets = ~own;
+        long occupied = position.getOccupied();
+
+        int count = generatePawnMoves(position, moves, 0, color);
+
+        long knights = position.getPieces(color, Position.KNIGHT);
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addMoves(position, moves, count, from, Bitboard.KNIGHT_ATTACKS[from] & targets);
+        }
+
+        long diagonals = position.getPieces(color, Position.BISHOP) | position.getPieces(color, Position.QUEEN);
+        while (diagonals != 0) {
+            int from = Long.numberOfTrailingZeros(diagonals);
+            diagonals &= diagonals - 1;
+            count = addMoves(position, moves, count, from, Bitboard.bishopAttacks(from, occupied) & targets);
+        }
+
+        long lines = position.getPieces(color, Position.ROOK) | position.getPieces(color, Position.QUEEN);
+        while (lines != 0) {
+            int from = Long.numberOfTrailingZeros(lines);
+            lines &= lines - 1;
+            count = addMoves(position, moves, count, from, Bitboard.rookAttacks(from, occupied) & targets);
+        }
+
+        int king = position.getKingSquare(color);
+        count = addMoves(position, moves, count, king, Bitboard.KING_ATTACKS[king] & targets);
+        return generateCastlingMoves(position, moves, count, color, king);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the pieces of a color that attack a square when the board holds the
+     * given occupancy, a different occupancy lets a square behind a moving king be
+     * tested
+     */
+    private static long attackersOf(Position position, int square, int color, long occupied) {
+        long queens = position.getPieces(color, Position.QUEEN);
+        return (Bitboard.PAWN_ATTACKS[color ^ 1][square] & position.getPieces(color, Position.PAWN))
+                | (Bitboard.KNIGHT_ATTACKS[square] & position.getPieces(color, Position.KNIGHT))
+                | (Bitboard.KING_ATTACKS[square] & position.getPieces(color, Position.KING))
+                | (Bitboard.bishopAttacks(square, occupied) & (position.getPieces(color, Position.BISHOP) | queens))
+                | (Bitboard.rookAttacks(square, occupied) & (position.getPieces(color, Position.ROOK) | queens));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the pieces of a color that are the only piece between their king and
+     * an enemy rook, bishop or queen on the same line
+     */
+    private static long pinnedPieces(Position position, int color, int king) {
+        int enemy = color ^ 1;
+        long enemies = position.getOccupancy(enemy);
+        long queens = position.getPieces(enemy, Position.QUEEN);
+        long snipers = (Bitboard.rookAttacks(king, enemies) & (position.getPieces(enemy, Position.ROOK) | queens))
+                | (Bitboard.bishopAttacks(king, enemies) & (position.getPieces(enemy, Position.BISHOP) | queens));
+        long occupied = position.getOccupied();
+        long own = position.getOccupancy(color);
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboard.BETWEEN[king][sniper] & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the squares a piece may move to without leaving its pin, every
+     * square when it is not pinned
+     */
+    private static long pinRay(long pinned, int king, int from) {
+        return (pinned & Bitboard.bit(from)) == 0 ? -1L : Bitboard.LINE[king][from];
+    }
+
+    /**
+     * HELPER FUNCTION
+     * adds the legal pawn moves, pawns that are not pinned are shifted together
+     * and limited to the check mask, pinned pawns are done one at a time along
+     * their pin and en passant is checked for a discovered attack on the king,
+     * quiet pushes and noisy captures and promotions are only written when their
+     * kind is asked for
+     */
+    private static int generateLegalPawnMoves(Position position, int[] moves, int count, int color, int king,
+            long pinned, long checkers, long checkMask, int kind, long fromSquares) {
+        long pawns = position.getPieces(color, Position.PAWN) & fromSquares;
+        long free = pawns & ~pinned;
+        long occupied = position.getOccupied();
+        long empty = ~occupied;
+        long enemies = position.getOccupancy(color ^ 1);
+        long promotionRank = color == Position.WHITE ? Bitboard.RANK_8 : Bitboard.RANK_1;
+        int forward = color == Position.WHITE ? 8 : -8;
+
+        long singles;
+        long doubles;
+        long leftCaptures;
+        long rightCaptures;
+        if (color == Position.WHITE) {
+            singles = (free << 8) & empty;
+            doubles = ((singles & Bitboard.RANK_3) << 8) & empty;
+            leftCaptures = ((free & ~Bitboard.FILE_A) << 7) & enemies;
+            rightCaptures = ((free & ~Bitboard.FILE_H) << 9) & enemies;
+        } else {
+            singles = (free >>> 8) & empty;
+            doubles = ((singles & Bitboard.RANK_6) >>> 8) & empty;
+            leftCaptures = ((free & ~Bitboard.FILE_A) >>> 9) & enemies;
+            rightCaptures = ((free & ~Bitboard.FILE_H) >>> 7) & enemies;
+        }
+        long quiet = (kind & QUIET) != 0 ? ~promotionRank : 0L;
+        long noisy = (kind & NOISY) != 0 ? -1L : 0L;
+        singles &= checkMask & (quiet | (noisy & promotionRank));
+        doubles &= checkMask & quiet;
+        leftCaptures &= checkMask & noisy;
+        rightCaptures &= checkMask & noisy;
+
+        count = addPawnMoves(moves, count, singles & ~promotionRank, forward, PackedMove.QUIET);
+        count = addPawnMoves(moves, count, doubles, forward * 2, PackedMove.DOUBLE_PAWN_PUSH);
+        count = addPawnMoves(moves, count, leftCaptures & ~promotionRank, forward - 1, PackedMove.CAPTURE);
+        count = addPawnMoves(moves, count, rightCaptures & ~promotionRank, forward + 1, PackedMove.CAPTURE);
+
+        count = addPromotions(moves, count, singles & promotionRank, forward, false);
+        count = addPromotions(moves, count, leftCaptures & promotionRank, forward - 1, true);
+        count = addPromotions(moves, count, rightCaptures & promotionRank, forward + 1, true);
+
+        long pinnedPawns = pawns & pinned;
+        while (pinnedPawns != 0) {
+            int from = Long.numberOfTrailingZeros(pinnedPawns);
+            pinnedPawns &= pinnedPawns - 1;
+            long allowed = Bitboard.LINE[king][from] & checkMask;
+            long targets = Bitboard.PAWN_ATTACKS[color][from] & enemies & noisy;
+            int single = from + forward;
+            if ((occupied & Bitboard.bit(single)) == 0) {
+                targets |= Bitboard.bit(single) & (quiet | (noisy & promotionRank));
+                long startRank = color == Position.WHITE ? Bitboard.RANK_1 << 8 : Bitboard.RANK_1 << 48;
+                if ((startRank & Bitboard.bit(from)) != 0 && (occupied & Bitboard.bit(single + forward)) == 0) {
+                    targets |= Bitboard.bit(single + forward) & quiet;
+                }
+            }
+            targets &= allowed;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                boolean capture = (enemies & Bitboard.bit(to)) != 0;
+                if ((promotionRank & Bitboard.bit(to)) != 0) {
+                    count = addPromotions(moves, count, Bitboard.bit(to), to - from, capture);
+                } else {
+                    int flags = capture ? PackedMove.CAPTURE
+                            : to - from == forward * 2 ? PackedMove.DOUBLE_PAWN_PUSH : PackedMove.QUIET;
+                    moves[count++] = PackedMove.of(from, to, flags);
+                }
+            }
+        }
+
+        int enPassant = position.getEnPassant();
+        if (enPassant != Position.NONE && noisy != 0) {
+            int victim = enPassant - forward;
+            boolean resolves = checkers == 0 || (checkers & Bitboard.bit(victim)) != 0
+                    || (checkMask & Bitboard.bit(enPassant)) != 0;
+            long attackers = Bitboard.PAWN_ATTACKS[color ^ 1][enPassant] & pawns;
+            while (resolves && attackers != 0) {
+                int from = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                long after = (occupied ^ Bitboard.bit(from) ^ Bitboard.bit(victim)) | Bitboard.bit(enPassant);
+                if (sliderAttacks(position, king, color ^ 1, after) == 0) {
+                    moves[count++] = PackedMove.of(from, enPassant, PackedMove.EN_PASSANT);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the rooks, bishops and queens of a color that reach a square with the
+     * given occupancy
+     */
+    private static long sliderAttacks(Position position, int square, int color, long occupied) {
+        long queens = position.getPieces(color, Position.QUEEN);
+        return (Bitboard.bishopAttacks(square, occupied) & (position.getPieces(color, Position.BISHOP) | queens))
+                | (Bitboard.rookAttacks(square, occupied) & (position.getPieces(color, Position.ROOK) | queens));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * adds a move to every square of a target bitboard, marking captures
+     */
+    private static int addMoves(Position position, int[] moves, int count, int from, long targets) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = position.getPiece(to) == Position.NONE ? PackedMove.QUIET : PackedMove.CAPTURE;
+            moves[count++] = PackedMove.of(from, to, flags);
+        }
+        return count;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * adds the pushes, captures, promotions and en passant captures of every pawn
+     * of a color at once by shifting the pawn bitboard
+     */
+    private static int generatePawnMoves(Position position, int[] moves, int count, int color) {
+        long pawns = position.getPieces(color, Position.PAWN);
+        long empty = ~position.getOccupied();
+        long enemies = position.getOccupancy(color ^ 1);
+        long promotionRank = color == Position.WHITE ? Bitboard.RANK_8 : Bitboard.RANK_1;
+        int forward = color == Position.WHITE ? 8 : -8;
+
+        long singles;
+        long doubles;
+        long leftCaptures;
+        long rightCaptures;
+        if (color == Position.WHITE) {
+            singles = (pawns << 8) & empty;
+            doubles = ((singles & Bitboard.RANK_3) << 8) & empty;
+            leftCaptures = ((pawns & ~Bitboard.FILE_A) << 7) & enemies;
+            rightCaptures = ((pawns & ~Bitboard.FILE_H) << 9) & enemies;
+        } else {
+            singles = (pawns >>> 8) & empty;
+            doubles = ((singles & Bitboard.RANK_6) >>> 8) & empty;
+            leftCaptures = ((pawns & ~Bitboard.FILE_A) >>> 9) & enemies;
+            rightCaptures = ((pawns & ~Bitboard.FILE_H) >>> 7) & enemies;
+        }
+
+        count = addPawnMoves(moves, count, singles & ~promotionRank, forward, PackedMove.QUIET);
+        count = addPawnMoves(moves, count, doubles, forward * 2, PackedMove.DOUBLE_PAWN_PUSH);
+        count = addPawnMoves(moves, count, leftCaptures & ~promotionRank, forward - 1, PackedMove.CAPTURE);
+        count = addPawnMoves(moves, count, rightCaptures & ~promotionRank, forward + 1, PackedMove.CAPTURE);
+
+        count = addPromotions(moves, count, singles & promotionRank, forward, false);
+        count = addPromotions(moves, count, leftCaptures & promotionRank, forward - 1, true);
+        count = addPromotions(moves, count, rightCaptures & promotionRank, forward + 1, true);
+
+        int enPassant = position.getEnPassant();
+        if (enPassant != Position.NONE) {
+            long attackers = Bitboard.PAWN_ATTACKS[color ^ 1][enPassant] & pawns;
+            while (attackers != 0) {
+                int from = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                moves[count++] = PackedMove.of(from, enPassant, PackedMove.EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * adds a pawn move to every square of a target bitboard where the pawn came
+     * from the square offset behind it
+     */
+    private static int addPawnMoves(int[] moves, int count, long targets, int offset, int flags) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[count++] = PackedMove.of(to - offset, to, flags);
+        }
+        return count;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * adds the four promotions to every square of a target bitboard
+     */
+    private static int addPromotions(int[] moves, int count, long targets, int offset, boolean capture) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int from = to - offset;
+            for (int type = Position.QUEEN; type >= Position.KNIGHT; type--) {
+                moves[count++] = PackedMove.promotion(from, to, type, capture);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * adds castling moves when the rights remain, the squares between king and
+     * rook are empty and the king is not in, passing through or landing in check
+     */
+    private static int generateCastlingMoves(Position position, int[] moves, int count, int color, int king) {
+        int rights = position.getCastlingRights();
+        int kingSide = color == Position.WHITE ? Position.WHITE_KING_SIDE : Position.BLACK_KING_SIDE;
+        int queenSide = color == Position.WHITE ? Position.WHITE_QUEEN_SIDE : Position.BLACK_QUEEN_SIDE;
+        if ((rights & (kingSide | queenSide)) == 0) {
+            return count;
+        }
+        int enemy = color ^ 1;
+        if (position.isSquareAttacked(king, enemy)) {
+            return count;
+        }
+        long occupied = position.getOccupied();
+        long kingSidePath = color == Position.WHITE ? WHITE_KING_SIDE_PATH : BLACK_KING_SIDE_PATH;
+        long queenSidePath = color == Position.WHITE ? WHITE_QUEEN_SIDE_PATH : BLACK_QUEEN_SIDE_PATH;
+
+        if ((rights & kingSide) != 0 && (occupied & kingSidePath) == 0
+                && !position.isSquareAttacked(king + 1, enemy) && !position.isSquareAttacked(king + 2, enemy)) {
+            moves[count++] = PackedMove.of(king, king + 2, PackedMove.KING_CASTLE);
+        }
+        if ((rights & queenSide) != 0 && (occupied & queenSidePath) == 0
+                && !position.isSquareAttacked(king - 1, enemy) && !position.isSquareAttacked(king - 2, enemy)) {
+            moves[count++] = PackedMove.of(king, king - 2, PackedMove.QUEEN_CASTLE);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,111 @@
+package bitboard;
+
+/**
+ * class that holds packed moves in a reusable int array, generators append to it
+ * and clear it instead of allocating a new collection for every position, one
+ * MoveList per ply is enough for a whole search
+ *
+ * @author Jackson Shortell
+ */
+public class MoveList {
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[MoveGenerator.MAX_MOVES];
+        this.size = 0;
+    }
+
+    /**
+     * empties the list, the array is kept
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param move passes in a packed move to append
+     */
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * @param index passes in an index below size
+     * @return returns the packed move at the index
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @param index passes in an index below size
+     * @param move  passes in the packed move to store there
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * sets how many moves are in the list, used by generators that write to the
+     * array directly
+     *
+     * @param size passes in the new size
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * gets the backing array, only the first size entries are moves
+     *
+     * @return returns the array
+     */
+    public int[] getMoves() {
+        return moves;
+    }
+
+    /**
+     * @param move passes in a packed move
+     * @return returns true if the list holds the move
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * swaps two moves, used when ordering moves in place
+     *
+     * @param i passes in an index below size
+     * @param j passes in an index below size
+     */
+    public void swap(int i, int j) {
+        int temp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = temp;
+    }
+
+    @Override
+    public String toString() {
+        String s = "";
+        for (int i = 0; i < size; i++) {
+            s += (i == 0 ? "" : " ") + PackedMove.toString(moves[i]);
+        }
+        return s;
+    }
+
+}
@@ -0,0 +1,197 @@
+package bitboard;
+
+import game.Board;
+import pieces.King;
+import pieces.Pawn;
+import pieces.Piece;
+import unit.Coordinate;
+import unit.Move;
+
+/**
+ * class of static helpers for moves packed into the low 16 bits of an int, bits
+ * 0-5 hold the from square, bits 6-11 the to square and bits 12-15 the flags
+ * below, packing keeps move lists as plain int arrays
+ *
+ * @author Jackson Shortell
+ */
+public final class PackedMove {
+
+    /**
+     * value used for "no move", a1 to a1 is never a real move
+     */
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    /**
+     * promotion flags are PROMOTION plus the promoted piece type minus KNIGHT, with
+     * the CAPTURE bit set when the promotion also captures
+     */
+    public static final int PROMOTION = 8;
+
+    private static final char[] PROMOTION_CHARS = { 'n', 'b', 'r', 'q' };
+    /**
+     * names the object model uses for the pieces a pawn can promote into, in
+     * piece type order from KNIGHT
+     */
+    private static final String[] PROMOTION_NAMES = { "Knight", "Bishop", "Rook", "Queen" };
+
+    private PackedMove() {
+    }
+
+    /**
+     * @param from  passes in the from square
+     * @param to    passes in the to square
+     * @param flags passes in one of the flag constants
+     * @return returns the packed move
+     */
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /**
+     * @param from      passes in the from square
+     * @param to        passes in the to square
+     * @param pieceType passes in the piece type the pawn promotes into
+     * @param capture   passes in true if the promotion also captures
+     * @return returns the packed move
+     */
+    public static int promotion(int from, int to, int pieceType, boolean capture) {
+        int flags = PROMOTION | (pieceType - Position.KNIGHT);
+        if (capture) {
+            flags |= CAPTURE;
+        }
+        return of(from, to, flags);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * @param move passes in a promotion move
+     * @return returns the piece type the pawn promotes into
+     */
+    public static int promotionType(int move) {
+        return (flags(move) & 3) + Position.KNIGHT;
+    }
+
+    /**
+     * @param move passes in a promotion move
+     * @return returns the name of the piece the pawn promotes into as Chess
+     *         expects it, such as "Queen", null if the move is not a promotion
+     */
+    public static String promotionName(int move) {
+        return isPromotion(move) ? PROMOTION_NAMES[promotionType(move) - Position.KNIGHT] : null;
+    }
+
+    /**
+     * packs a Move of the object model, the flags are read from the Board the move
+     * is about to be played on
+     *
+     * @param move      passes in a Move with both Coordinates set
+     * @param board     passes in the Board before the move is played
+     * @param promotion passes in the name of the piece a pawn promotes into, such
+     *                  as "Knight", null for a Queen
+     * @return returns the packed move
+     */
+    public static int fromMove(Move move, Board board, String promotion) {
+        return fromMove(move.getFrom().getId(), move.getTo().getId(), board, promotion);
+    }
+
+    /**
+     * packs a move of the object model given by its square indexes, the flags are
+     * read from the Board the move is about to be played on
+     *
+     * @param from      passes in the square index the piece moves from
+     * @param to        passes in the square index the piece moves to
+     * @param board     passes in the Board before the move is played
+     * @param promotion passes in the name of the piece a pawn promotes into, such
+     *                  as "Knight", null for a Queen
+     * @return returns the packed move
+     */
+    public static int fromMove(int from, int to, Board board, String promotion) {
+        Piece piece = board.getSquare(from).getPiece();
+        boolean capture = board.getSquare(to).isOccupied();
+        if (piece instanceof Pawn) {
+            if (to >>> 3 == 0 || to >>> 3 == 7) {
+                int type = Position.QUEEN;
+                for (int i = 0; i < PROMOTION_NAMES.length; i++) {
+                    if (PROMOTION_NAMES[i].equals(promotion)) {
+                        type = Position.KNIGHT + i;
+                    }
+                }
+                return promotion(from, to, type, capture);
+            } else if ((from & 7) != (to & 7) && !capture) {
+                return of(from, to, EN_PASSANT);
+            } else if (Math.abs(to - from) == 16) {
+                return of(from, to, DOUBLE_PAWN_PUSH);
+            }
+        } else if (piece instanceof King && Math.abs((to & 7) - (from & 7)) == 2) {
+            return of(from, to, to > from ? KING_CASTLE : QUEEN_CASTLE);
+        }
+        return of(from, to, capture ? CAPTURE : QUIET);
+    }
+
+    /**
+     * unpacks a move into a Move of the object model, the promotion piece is read
+     * with promotionName
+     *
+     * @param move passes in a packed move
+     * @return returns a Move, null for NONE
+     */
+    public static Move toMove(int move) {
+        if (move == NONE) {
+            return null;
+        }
+        return new Move(Coordinate.getCoordinate(from(move)), Coordinate.getCoordinate(to(move)));
+    }
+
+    /**
+     * @param square passes in a square index
+     * @return returns the square as a lower case string such as "e4"
+     */
+    public static String squareToString(int square) {
+        return "" + (char) ('a' + (square & 7)) + (char) ('1' + (square >>> 3));
+    }
+
+    /**
+     * produces the move in long algebraic form such as "e2e4" or "e7e8q"
+     *
+     * @param move passes in a packed move
+     * @return returns a string
+     */
+    public static String toString(int move) {
+        String s = squareToString(from(move)) + squareToString(to(move));
+        if (isPromotion(move)) {
+            s += PROMOTION_CHARS[promotionType(move) - Position.KNIGHT];
+        }
+        return s;
+    }
+
+}
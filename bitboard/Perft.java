@@ -0,0 +1,272 @@
+package bitboard;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+import game.Board;
+import game.Zobrist;
+import model.Chess;
+import model.UndoEntry;
+import pieces.Piece;
+import unit.Team;
+
+/**
+ * class that counts the leaf nodes of the legal move tree to a fixed depth
+ * (perft), the counts are compared against known values to prove the move
+ * generator correct and the time taken gives its speed
+ *
+ * usage:
+ * java bitboard.Perft depth [fen] - prints divide counts for one position
+ * java bitboard.Perft suite [file] [max depth] - runs a file of reference
+ * positions and reports any count that does not match
+ * java bitboard.Perft model [depth] - counts the start position by making
+ * and unmaking every move on the object model and checks its Board against
+ * the Position it keeps in step after each move
+ *
+ * @author Jackson Shortell
+ */
+public class Perft {
+
+    public static final String DEFAULT_SUITE = "data/perft_suite.epd";
+
+    /**
+     * move lists for each remaining depth so counting allocates nothing
+     */
+    private final MoveList[] moves;
+
+    public Perft(int maxDepth) {
+        this.moves = new MoveList[maxDepth + 1];
+        for (int depth = 0; depth <= maxDepth; depth++) {
+            moves[depth] = new MoveList();
+        }
+    }
+
+    /**
+     * counts the leaf nodes of the legal move tree
+     *
+     * @param position passes in a Position, it is left unchanged
+     * @param depth    passes in the number of plies to search, at most the max
+     *                 depth this Perft was made for
+     * @return returns the number of leaf nodes
+     */
+    public long perft(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList list = moves[depth];
+        MoveGenerator.generateLegalMoves(position, list);
+        if (depth == 1) {
+            return list.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i);
+            position.makeMove(move);
+            nodes += perft(position, depth - 1);
+            position.unmakeMove(move);
+        }
+        return nodes;
+    }
+
+    /**
+     * counts the leaf nodes of the legal move tree by making and unmaking every
+     * move on the object model, the legal moves come from the Position the game
+     * keeps in step, so after each move the pieces on the Board, the side to
+     * move and the castling rights are compared with that Position, which checks
+     * the pieces package's make and unmake against the same reference counts
+     *
+     * @param chess passes in an instance of Chess, it is left unchanged
+     * @param depth passes in the number of plies to search, at most the max depth
+     *              this Perft was made for
+     * @return returns the number of leaf nodes
+     * @throws IllegalStateException if the Board and the Position disagree after
+     *                               a move
+     */
+    public long modelPerft(Chess chess, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList list = moves[depth];
+        chess.generateLegalMoves(list);
+        if (depth == 1) {
+            return list.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            UndoEntry undo = chess.makeMove(list.get(i));
+            if (!inStep(chess)) {
+                throw new IllegalStateException("the Board and the Position disagree after "
+                        + PackedMove.toString(list.get(i)) + " in " + Fen.fromPosition(chess.getPosition()));
+            }
+            nodes += modelPerft(chess, depth - 1);
+            chess.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * checks that every square of the object model's Board holds the piece the
+     * Position it keeps in step has there and that both agree on the side to
+     * move and the castling rights
+     */
+    private static boolean inStep(Chess chess) {
+        Board board = chess.getBoard();
+        Position position = chess.getPosition();
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.getSquare(square).getPiece();
+            if ((piece == null ? Position.NONE : Zobrist.pieceIndex(piece)) != position.getPiece(square)) {
+                return false;
+            }
+        }
+        return position.getSideToMove() == (chess.getTurn() == Team.WHITE ? Position.WHITE : Position.BLACK)
+                && position.getCastlingRights() == board.getCastlingRights();
+    }
+
+    /**
+     * counts the leaf nodes under each legal move of the position and prints
+     * them one per line followed by the total and the speed
+     *
+     * @param position passes in a Position, it is left unchanged
+     * @param depth    passes in the number of plies to search, at least 1
+     * @return returns the total number of leaf nodes
+     */
+    public long divide(Position position, int depth) {
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateLegalMoves(position, rootMoves);
+        int count = rootMoves.size();
+        long start = System.nanoTime();
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            int move = rootMoves.get(i);
+            position.makeMove(move);
+            long nodes = perft(position, depth - 1);
+            position.unmakeMove(move);
+            System.out.println(PackedMove.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println();
+        System.out.println("moves: " + count);
+        System.out.println("nodes: " + total);
+        System.out.println("time: " + (elapsed / 1000000) + " ms");
+        System.out.println("nodes/second: " + nodesPerSecond(total, elapsed));
+        return total;
+    }
+
+    /**
+     * counts the leaf nodes of the legal move tree starting from the object
+     * model's current position
+     *
+     * @param chess passes in an instance of Chess, it is left unchanged
+     * @param depth passes in the number of plies to search
+     * @return returns the number of leaf nodes
+     */
+    public static long perft(Chess chess, int depth) {
+        return new Perft(depth).perft(new Position(chess), depth);
+    }
+
+    /**
+     * counts the leaf nodes of the legal move tree starting from a FEN string
+     *
+     * @param fen   passes in a FEN string
+     * @param depth passes in the number of plies to search
+     * @return returns the number of leaf nodes
+     */
+    public static long perft(String fen, int depth) {
+        return new Perft(depth).perft(Fen.toPosition(fen), depth);
+    }
+
+    /**
+     * runs every position of a suite file, each line holds a FEN followed by
+     * ";D<depth> <nodes>" entries, blank lines and lines starting with # are
+     * skipped
+     *
+     * @param path     passes in the path of the suite file
+     * @param maxDepth passes in the deepest entry to run
+     * @return returns true if every count matched and false otherwise
+     * @throws IOException if the file can not be read
+     */
+    public static boolean runSuite(String path, int maxDepth) throws IOException {
+        Perft perft = new Perft(maxDepth);
+        int failures = 0;
+        long totalNodes = 0;
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(";");
+                Position position = Fen.toPosition(fields[0].trim());
+                for (int i = 1; i < fields.length; i++) {
+                    String[] entry = fields[i].trim().split(" ");
+                    int depth = Integer.parseInt(entry[0].substring(1));
+                    if (depth > maxDepth) {
+                        continue;
+                    }
+                    long expected = Long.parseLong(entry[1]);
+                    long nodes = perft.perft(position, depth);
+                    totalNodes += nodes;
+                    if (nodes != expected) {
+                        failures++;
+                        System.out.println("FAIL " + fields[0].trim() + " depth " + depth + ": expected "
+                                + expected + " got " + nodes);
+                    }
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(failures == 0 ? "all counts match" : failures + " counts do not match");
+        System.out.println("nodes: " + totalNodes);
+        System.out.println("time: " + (elapsed / 1000000) + " ms");
+        System.out.println("nodes/second: " + nodesPerSecond(totalNodes, elapsed));
+        return failures == 0;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * converts a node count and elapsed nanoseconds into nodes per second
+     */
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1000000000L / nanos;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("suite")) {
+            String path = args.length > 1 ? args[1] : DEFAULT_SUITE;
+            int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+            boolean passed = runSuite(path, maxDepth);
+            System.exit(passed ? 0 : 1);
+        }
+        if (args.length > 0 && args[0].equals("model")) {
+            int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            long start = System.nanoTime();
+            long nodes = new Perft(depth).modelPerft(new Chess(), depth);
+            long elapsed = System.nanoTime() - start;
+            System.out.println("nodes: " + nodes);
+            System.out.println("time: " + (elapsed / 1000000) + " ms");
+            System.out.println("nodes/second: " + nodesPerSecond(nodes, elapsed));
+            return;
+        }
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Position position;
+        if (args.length > 1) {
+            String fen = "";
+            for (int i = 1; i < args.length; i++) {
+                fen += args[i] + " ";
+            }
+            position = Fen.toPosition(fen.trim());
+        } else {
+            position = new Position(new Chess());
+        }
+        System.out.println(position);
+        System.out.println(Fen.fromPosition(position));
+        System.out.println();
+        new Perft(depth).divide(position, depth);
+    }
+
+}
@@ -0,0 +1,135 @@
+package bitboard;
+
+/**
+ * class that holds the material and piece-square scores a Position keeps up to
+ * date as pieces are put, removed and moved, each piece has a middlegame and an
+ * endgame score that the evaluation blends by how much material is left
+ *
+ * scores are in centipawns from white's point of view so a black piece's
+ * entries are negative, tables are indexed by [color * 6 + type][square]
+ *
+ * @author Jackson Shortell
+ */
+public final class PieceSquareTables {
+
+    /**
+     * centipawn value of each piece type in the middlegame and endgame, based on
+     * the Piece values 1, 3, 3, 5 and 9
+     */
+    public static final int[] MIDDLEGAME_VALUES = { 100, 310, 320, 500, 900, 0 };
+    public static final int[] ENDGAME_VALUES = { 120, 290, 310, 530, 950, 0 };
+
+    /**
+     * how much each piece type counts toward the game phase, all the pieces of the
+     * starting position add up to MAX_PHASE
+     */
+    public static final int[] PHASE_WEIGHTS = { 0, 1, 1, 2, 4, 0 };
+    public static final int MAX_PHASE = 24;
+
+    /**
+     * material plus square bonus of each piece on each square
+     */
+    public static final int[][] MIDDLEGAME = new int[12][64];
+    public static final int[][] ENDGAME = new int[12][64];
+
+    /**
+     * square bonuses for white written as the board is seen from white's side,
+     * the first row is rank 8
+     */
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0 };
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            20, 20, 20, 20, 20, 20, 20, 20,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0 };
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50 };
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20 };
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0 };
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20 };
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20 };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50 };
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * fills the tables once when the class is loaded, a white piece on a square
+     * reads the row for that square seen from white's side and a black piece
+     * reads the mirrored square with the sign flipped
+     */
+    static {
+        int[][] middlegame = { PAWN_MIDDLEGAME, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE,
+                KING_MIDDLEGAME };
+        int[][] endgame = { PAWN_ENDGAME, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_ENDGAME };
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                int white = square ^ 56;
+                MIDDLEGAME[type][square] = MIDDLEGAME_VALUES[type] + middlegame[type][white];
+                ENDGAME[type][square] = ENDGAME_VALUES[type] + endgame[type][white];
+                MIDDLEGAME[6 + type][square] = -(MIDDLEGAME_VALUES[type] + middlegame[type][square]);
+                ENDGAME[6 + type][square] = -(ENDGAME_VALUES[type] + endgame[type][square]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,629 @@
+package bitboard;
+
+import java.util.Arrays;
+
+import game.Board;
+import game.Zobrist;
+import model.Chess;
+import pieces.Piece;
+import unit.Coordinate;
+import unit.Team;
+
+/**
+ * class that represents a chess position as bitboards, one long per piece type
+ * and color plus occupancy, moves are made and unmade in place so nothing is
+ * copied or allocated while generating moves or searching
+ *
+ * @author Jackson Shortell
+ */
+public class Position {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    /**
+     * value used for an empty square or a missing en passant square
+     */
+    public static final int NONE = -1;
+
+    public static final int WHITE_KING_SIDE = Board.WHITE_KING_SIDE;
+    public static final int WHITE_QUEEN_SIDE = Board.WHITE_QUEEN_SIDE;
+    public static final int BLACK_KING_SIDE = Board.BLACK_KING_SIDE;
+    public static final int BLACK_QUEEN_SIDE = Board.BLACK_QUEEN_SIDE;
+
+    /**
+     * the most moves that can be made on a Position before they are unmade
+     */
+    public static final int MAX_PLY = 1024;
+    /**
+     * the most earlier positions a copy keeps for repetition checks
+     */
+    public static final int MAX_HISTORY = 256;
+
+    /**
+     * castling rights kept when a piece moves from or to a square, moving the
+     * king or a rook or capturing a rook drops the matching rights
+     */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    /**
+     * bitboards of each piece type indexed by [color][type]
+     */
+    private final long[][] pieces;
+    /**
+     * bitboards of all pieces of a color
+     */
+    private final long[] occupancy;
+    private long occupied;
+    /**
+     * the piece on each square as color * 6 + type, NONE if the square is empty
+     */
+    private final int[] board;
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassant;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    /**
+     * Zobrist key of the pieces, side to move, castling rights and capturable en
+     * passant file, built with the same numbers as Board so both agree
+     */
+    private long zobristKey;
+    /**
+     * Zobrist key of the pawns and kings only, it changes far less often than the
+     * full key so pawn structure scores can be cached by it
+     */
+    private long pawnKey;
+    /**
+     * material plus piece-square scores of the middlegame and endgame from white's
+     * point of view and the game phase, kept up to date by every piece change so
+     * the evaluation does not have to add them up
+     */
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
+
+    /**
+     * state that can not be recovered from a move alone, saved by makeMove and
+     * restored by unmakeMove
+     */
+    private final int[] undoCaptured;
+    private final int[] undoCastlingRights;
+    private final int[] undoEnPassant;
+    private final int[] undoHalfmoveClock;
+    private final long[] undoZobristKey;
+    private int ply;
+
+    /**
+     * creates an empty Position with white to move
+     */
+    public Position() {
+        this.pieces = new long[2][6];
+        this.occupancy = new long[2];
+        this.board = new int[64];
+        Arrays.fill(board, NONE);
+        this.sideToMove = WHITE;
+        this.castlingRights = 0;
+        this.enPassant = NONE;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.undoCaptured = new int[MAX_PLY];
+        this.undoCastlingRights = new int[MAX_PLY];
+        this.undoEnPassant = new int[MAX_PLY];
+        this.undoHalfmoveClock = new int[MAX_PLY];
+        this.undoZobristKey = new long[MAX_PLY];
+        this.zobristKey = 0L;
+        this.pawnKey = 0L;
+        this.middlegameScore = 0;
+        this.endgameScore = 0;
+        this.phase = 0;
+        this.ply = 0;
+    }
+
+    /**
+     * copy constructor, of the undo history only the keys of the positions since
+     * the last capture or pawn move are kept, at most MAX_HISTORY of them, so
+     * repetitions of positions before the copy are still found, the moves made
+     * before the copy can not be unmade on it
+     *
+     * @param template passes in a Position to make a deep copy of
+     */
+    public Position(Position template) {
+        this();
+        int kept = Math.min(Math.min(template.ply, template.halfmoveClock), MAX_HISTORY);
+        System.arraycopy(template.undoZobristKey, template.ply - kept, undoZobristKey, 0, kept);
+        this.ply = kept;
+        for (int color = 0; color < 2; color++) {
+            System.arraycopy(template.pieces[color], 0, pieces[color], 0, 6);
+        }
+        System.arraycopy(template.occupancy, 0, occupancy, 0, 2);
+        System.arraycopy(template.board, 0, board, 0, 64);
+        this.occupied = template.occupied;
+        this.sideToMove = template.sideToMove;
+        this.castlingRights = template.castlingRights;
+        this.enPassant = template.enPassant;
+        this.halfmoveClock = template.halfmoveClock;
+        this.fullmoveNumber = template.fullmoveNumber;
+        this.zobristKey = template.zobristKey;
+        this.pawnKey = template.pawnKey;
+        this.middlegameScore = template.middlegameScore;
+        this.endgameScore = template.endgameScore;
+        this.phase = template.phase;
+    }
+
+    /**
+     * builds a Position from the object model, castling rights come from the
+     * Unmoved flags of the King and Rooks, the en passant square comes from the
+     * Board's last move and the move clocks come from the Chess
+     *
+     * @param chess passes in an instance of Chess
+     */
+    public Position(Chess chess) {
+        this();
+        Board board = chess.getBoard();
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.getSquare(square).getPiece();
+            if (piece != null) {
+                int color = teamToColor(piece.getTeam());
+                putPiece(color * 6 + nameToType(piece.getName()), square);
+            }
+        }
+        Coordinate enPassantTarget = board.getEnPassantTarget();
+        setSideToMove(teamToColor(chess.getTurn()));
+        setCastlingRights(board.getCastlingRights());
+        setEnPassant(enPassantTarget == null ? NONE
+                : Bitboard.square(enPassantTarget.getFileIndex(), enPassantTarget.getRankIndex()));
+        setHalfmoveClock(chess.getHalfmoveClock());
+        setFullmoveNumber(chess.getFullmoveNumber());
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public int getEnPassant() {
+        return enPassant;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return returns the game phase, PieceSquareTables.MAX_PHASE with all the
+     *         starting pieces on the board down to 0 with only pawns and kings,
+     *         promotions can take it above MAX_PHASE
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    public long getPieces(int color, int type) {
+        return pieces[color][type];
+    }
+
+    public long getOccupancy(int color) {
+        return occupancy[color];
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @param square passes in a square index
+     * @return returns the piece on the square as color * 6 + type, NONE if empty
+     */
+    public int getPiece(int square) {
+        return board[square];
+    }
+
+    /**
+     * @param color passes in a color
+     * @return returns the square the king of that color is on
+     */
+    public int getKingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[color][KING]);
+    }
+
+    /**
+     * @return returns the number of moves made on this Position that can still be
+     *         unmade, makeMove must not be called once it reaches MAX_PLY
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    public void setSideToMove(int sideToMove) {
+        zobristKey ^= enPassantKey();
+        if (sideToMove != this.sideToMove) {
+            zobristKey ^= Zobrist.BLACK_TO_MOVE;
+        }
+        this.sideToMove = sideToMove;
+        zobristKey ^= enPassantKey();
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        zobristKey ^= Zobrist.CASTLING[this.castlingRights] ^ Zobrist.CASTLING[castlingRights];
+        this.castlingRights = castlingRights;
+    }
+
+    public void setEnPassant(int enPassant) {
+        zobristKey ^= enPassantKey();
+        this.enPassant = enPassant;
+        zobristKey ^= enPassantKey();
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * places a piece on an empty square
+     *
+     * @param piece  passes in a piece as color * 6 + type
+     * @param square passes in a square index
+     */
+    public void putPiece(int piece, int square) {
+        long bit = 1L << square;
+        int color = piece / 6;
+        pieces[color][piece - color * 6] |= bit;
+        occupancy[color] |= bit;
+        occupied |= bit;
+        board[square] = piece;
+        zobristKey ^= Zobrist.PIECE_SQUARE[piece][square];
+        if (isPawnOrKing(piece)) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece][square];
+        }
+        middlegameScore += PieceSquareTables.MIDDLEGAME[piece][square];
+        endgameScore += PieceSquareTables.ENDGAME[piece][square];
+        phase += PieceSquareTables.PHASE_WEIGHTS[piece - color * 6];
+    }
+
+    /**
+     * removes the piece on a square
+     *
+     * @param square passes in an occupied square index
+     */
+    public void removePiece(int square) {
+        long bit = 1L << square;
+        int piece = board[square];
+        int color = piece / 6;
+        pieces[color][piece - color * 6] ^= bit;
+        occupancy[color] ^= bit;
+        occupied ^= bit;
+        board[square] = NONE;
+        zobristKey ^= Zobrist.PIECE_SQUARE[piece][square];
+        if (isPawnOrKing(piece)) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece][square];
+        }
+        middlegameScore -= PieceSquareTables.MIDDLEGAME[piece][square];
+        endgameScore -= PieceSquareTables.ENDGAME[piece][square];
+        phase -= PieceSquareTables.PHASE_WEIGHTS[piece - color * 6];
+    }
+
+    /**
+     * HELPER FUNCTION
+     * moves a piece from one square to an empty square
+     */
+    private void shiftPiece(int from, int to) {
+        long bits = (1L << from) | (1L << to);
+        int piece = board[from];
+        int color = piece / 6;
+        pieces[color][piece - color * 6] ^= bits;
+        occupancy[color] ^= bits;
+        occupied ^= bits;
+        board[to] = piece;
+        board[from] = NONE;
+        zobristKey ^= Zobrist.PIECE_SQUARE[piece][from] ^ Zobrist.PIECE_SQUARE[piece][to];
+        if (isPawnOrKing(piece)) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece][from] ^ Zobrist.PIECE_SQUARE[piece][to];
+        }
+        middlegameScore += PieceSquareTables.MIDDLEGAME[piece][to] - PieceSquareTables.MIDDLEGAME[piece][from];
+        endgameScore += PieceSquareTables.ENDGAME[piece][to] - PieceSquareTables.ENDGAME[piece][from];
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns true if a piece code is a pawn or king of either color
+     */
+    private static boolean isPawnOrKing(int piece) {
+        int type = piece % 6;
+        return type == PAWN || type == KING;
+    }
+
+    /**
+     * plays a move, the move is assumed to be pseudo legal for this position
+     *
+     * @param move passes in a packed move
+     */
+    public void makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+        int piece = board[from];
+
+        undoCastlingRights[ply] = castlingRights;
+        undoEnPassant[ply] = enPassant;
+        undoHalfmoveClock[ply] = halfmoveClock;
+        undoZobristKey[ply] = zobristKey;
+        zobristKey ^= enPassantKey() ^ Zobrist.CASTLING[castlingRights];
+
+        int captured = NONE;
+        if (flags == PackedMove.EN_PASSANT) {
+            captured = board[to ^ 8];
+            removePiece(to ^ 8);
+        } else if (board[to] != NONE) {
+            captured = board[to];
+            removePiece(to);
+        }
+        undoCaptured[ply] = captured;
+
+        shiftPiece(from, to);
+        if ((flags & PackedMove.PROMOTION) != 0) {
+            removePiece(to);
+            putPiece(sideToMove * 6 + PackedMove.promotionType(move), to);
+        } else if (flags == PackedMove.KING_CASTLE) {
+            shiftPiece(to + 1, to - 1);
+        } else if (flags == PackedMove.QUEEN_CASTLE) {
+            shiftPiece(to - 2, to + 1);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassant = flags == PackedMove.DOUBLE_PAWN_PUSH ? (from + to) >>> 1 : NONE;
+        if (piece == sideToMove * 6 + PAWN || captured != NONE) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        if (sideToMove == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove ^= 1;
+        zobristKey ^= Zobrist.BLACK_TO_MOVE ^ enPassantKey() ^ Zobrist.CASTLING[castlingRights];
+        ply++;
+    }
+
+    /**
+     * takes back a move made with makeMove, moves must be unmade in the reverse
+     * order they were made
+     *
+     * @param move passes in the packed move that was last made
+     */
+    public void unmakeMove(int move) {
+        ply--;
+        sideToMove ^= 1;
+        if (sideToMove == BLACK) {
+            fullmoveNumber--;
+        }
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+
+        if ((flags & PackedMove.PROMOTION) != 0) {
+            removePiece(to);
+            putPiece(sideToMove * 6 + PAWN, to);
+        } else if (flags == PackedMove.KING_CASTLE) {
+            shiftPiece(to - 1, to + 1);
+        } else if (flags == PackedMove.QUEEN_CASTLE) {
+            shiftPiece(to + 1, to - 2);
+        }
+        shiftPiece(to, from);
+
+        int captured = undoCaptured[ply];
+        if (captured != NONE) {
+            putPiece(captured, flags == PackedMove.EN_PASSANT ? to ^ 8 : to);
+        }
+
+        castlingRights = undoCastlingRights[ply];
+        enPassant = undoEnPassant[ply];
+        halfmoveClock = undoHalfmoveClock[ply];
+        zobristKey = undoZobristKey[ply];
+    }
+
+    /**
+     * passes the turn to the other side without moving a piece, used by the
+     * search for null move pruning, the side to move must not be in check
+     */
+    public void makeNullMove() {
+        undoCastlingRights[ply] = castlingRights;
+        undoEnPassant[ply] = enPassant;
+        undoHalfmoveClock[ply] = halfmoveClock;
+        undoZobristKey[ply] = zobristKey;
+        undoCaptured[ply] = NONE;
+
+        zobristKey ^= enPassantKey();
+        enPassant = NONE;
+        halfmoveClock = 0;
+        if (sideToMove == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove ^= 1;
+        zobristKey ^= Zobrist.BLACK_TO_MOVE;
+        ply++;
+    }
+
+    /**
+     * takes back a null move made with makeNullMove
+     */
+    public void unmakeNullMove() {
+        ply--;
+        sideToMove ^= 1;
+        if (sideToMove == BLACK) {
+            fullmoveNumber--;
+        }
+        enPassant = undoEnPassant[ply];
+        halfmoveClock = undoHalfmoveClock[ply];
+        zobristKey = undoZobristKey[ply];
+    }
+
+    /**
+     * determines if the current position already happened since the last capture
+     * or pawn move among the moves made on this Position
+     *
+     * @return returns true if the position is a repetition and false otherwise
+     */
+    public boolean isRepetition() {
+        int oldest = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 4; i >= oldest; i -= 2) {
+            if (undoZobristKey[i] == zobristKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * builds the Zobrist key from scratch, used to check the incrementally
+     * updated key
+     *
+     * @return returns the 64-bit key
+     */
+    public long computeZobristKey() {
+        long key = Zobrist.CASTLING[castlingRights] ^ enPassantKey();
+        if (sideToMove == BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        for (int square = 0; square < 64; square++) {
+            if (board[square] != NONE) {
+                key ^= Zobrist.PIECE_SQUARE[board[square]][square];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * gets the key part for the en passant file, only counted when a pawn of the
+     * side to move could capture there
+     */
+    private long enPassantKey() {
+        if (enPassant != NONE
+                && (Bitboard.PAWN_ATTACKS[sideToMove ^ 1][enPassant] & pieces[sideToMove][PAWN]) != 0) {
+            return Zobrist.EN_PASSANT_FILE[enPassant & 7];
+        }
+        return 0L;
+    }
+
+    /**
+     * determines if a square is attacked by any piece of a color by looking
+     * outward from the square with each piece's attack pattern
+     *
+     * @param square passes in a square index
+     * @param color  passes in the attacking color
+     * @return returns true if the square is attacked and false otherwise
+     */
+    public boolean isSquareAttacked(int square, int color) {
+        long[] attacker = pieces[color];
+        if ((Bitboard.PAWN_ATTACKS[color ^ 1][square] & attacker[PAWN]) != 0
+                || (Bitboard.KNIGHT_ATTACKS[square] & attacker[KNIGHT]) != 0
+                || (Bitboard.KING_ATTACKS[square] & attacker[KING]) != 0) {
+            return true;
+        }
+        long queens = attacker[QUEEN];
+        return (Bitboard.bishopAttacks(square, occupied) & (attacker[BISHOP] | queens)) != 0
+                || (Bitboard.rookAttacks(square, occupied) & (attacker[ROOK] | queens)) != 0;
+    }
+
+    /**
+     * @param color passes in a color
+     * @return returns true if the king of that color is attacked
+     */
+    public boolean isInCheck(int color) {
+        return isSquareAttacked(getKingSquare(color), color ^ 1);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * given a Team returns the matching color index
+     */
+    private static int teamToColor(Team team) {
+        return team == Team.WHITE ? WHITE : BLACK;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * given the name of a Piece returns the matching piece type
+     */
+    private static int nameToType(String name) {
+        switch (name) {
+            case "Pawn":
+                return PAWN;
+            case "Knight":
+                return KNIGHT;
+            case "Bishop":
+                return BISHOP;
+            case "Rook":
+                return ROOK;
+            case "Queen":
+                return QUEEN;
+            default:
+                return KING;
+        }
+    }
+
+    @Override
+    public String toString() {
+        String symbols = "PNBRQKpnbrqk";
+        String s = "";
+        for (int rank = 7; rank > -1; rank--) {
+            s += (rank + 1) + " ";
+            for (int file = 0; file < 8; file++) {
+                int piece = board[Bitboard.square(file, rank)];
+                s += "[" + (piece == NONE ? ' ' : symbols.charAt(piece)) + "]";
+            }
+            s += "\n";
+        }
+        s += "   A  B  C  D  E  F  G  H";
+        return s;
+    }
+
+    /**
+     * fills the castling mask table once when the class is loaded
+     */
+    static {
+        Arrays.fill(CASTLING_MASK, WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASK[Bitboard.square(4, 0)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASK[Bitboard.square(7, 0)] &= ~WHITE_KING_SIDE;
+        CASTLING_MASK[Bitboard.square(0, 0)] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASK[Bitboard.square(4, 7)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASK[Bitboard.square(7, 7)] &= ~BLACK_KING_SIDE;
+        CASTLING_MASK[Bitboard.square(0, 7)] &= ~BLACK_QUEEN_SIDE;
+    }
+
+}
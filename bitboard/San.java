@@ -0,0 +1,383 @@
+package bitboard;
+
+import model.Chess;
+import unit.Coordinate;
+import unit.Move;
+
+/**
+ * class that reads and writes moves in Standard Algebraic Notation (SAN) such
+ * as "Nbd7", "exd6", "O-O-O", "e8=Q+" or "Qxf7#", the move is found among or
+ * told apart from the legal moves of the Position so a SAN string only matches
+ * a move that can be played and is only as long as it has to be
+ *
+ * check and mate marks, annotation marks such as "!?" and a trailing "e.p." are
+ * accepted and ignored, castling may be written with letter O or digit 0 and a
+ * promotion with or without the '='
+ *
+ * moves are written the way PGN wants them, so an en passant capture is plain
+ * "exd6" unless the " e.p." suffix is asked for
+ *
+ * @author Jackson Shortell
+ */
+public final class San {
+
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private San() {
+    }
+
+    /**
+     * finds the legal move a SAN string stands for, nothing is allocated so it can
+     * be called for every move of a large game file
+     *
+     * @param position passes in the Position the move is played from
+     * @param san      passes in the move in SAN
+     * @param scratch  passes in an array of at least MoveGenerator.MAX_MOVES ints
+     *                 to generate the legal moves into
+     * @return returns the packed move or PackedMove.NONE if the string is not a
+     *         legal move or could mean more than one move
+     */
+    public static int parse(Position position, CharSequence san, int[] scratch) {
+        int end = trimmedEnd(san);
+        if (end == 0) {
+            return PackedMove.NONE;
+        }
+        int count = MoveGenerator.generateLegalMoves(position, scratch);
+
+        char first = san.charAt(0);
+        if (first == 'O' || first == '0') {
+            int flags;
+            if (isCastle(san, end, first, 3)) {
+                flags = PackedMove.KING_CASTLE;
+            } else if (isCastle(san, end, first, 5)) {
+                flags = PackedMove.QUEEN_CASTLE;
+            } else {
+                return PackedMove.NONE;
+            }
+            for (int i = 0; i < count; i++) {
+                if (PackedMove.flags(scratch[i]) == flags) {
+                    return scratch[i];
+                }
+            }
+            return PackedMove.NONE;
+        }
+
+        int start = 0;
+        int type = PIECE_LETTERS.indexOf(first);
+        if (type > 0) {
+            start = 1;
+        } else {
+            type = Position.PAWN;
+        }
+
+        int promotion = Position.NONE;
+        if (end - start >= 3) {
+            int promoted = PIECE_LETTERS.indexOf(Character.toUpperCase(san.charAt(end - 1)));
+            char before = san.charAt(end - 2);
+            if (promoted >= Position.KNIGHT && promoted <= Position.QUEEN && (before == '=' || isRank(before))) {
+                promotion = promoted;
+                end -= before == '=' ? 2 : 1;
+            }
+        }
+
+        if (end - start < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            return PackedMove.NONE;
+        }
+        int to = Bitboard.square(san.charAt(end - 2) - 'a', san.charAt(end - 1) - '1');
+        end -= 2;
+
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end; i++) {
+            char c = san.charAt(i);
+            if (isFile(c)) {
+                fromFile = c - 'a';
+            } else if (isRank(c)) {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return PackedMove.NONE;
+            }
+        }
+
+        int found = PackedMove.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = scratch[i];
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) != to || position.getPiece(from) % 6 != type || PackedMove.isCastle(move)) {
+                continue;
+            }
+            if ((fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >>> 3) != fromRank)) {
+                continue;
+            }
+            if (PackedMove.isPromotion(move) ? PackedMove.promotionType(move) != promotion
+                    : promotion != Position.NONE) {
+                continue;
+            }
+            if (found != PackedMove.NONE) {
+                return PackedMove.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    /**
+     * writes a legal move in SAN with the check or mate mark, the move is made
+     * and unmade on the Position to find the mark and nothing is allocated, so
+     * games can be written into one reused StringBuilder
+     *
+     * @param position passes in the Position the move is played from, it is left
+     *                 unchanged
+     * @param move     passes in a legal packed move
+     * @param out      passes in the StringBuilder to append to
+     * @param scratch  passes in an array of at least MoveGenerator.MAX_MOVES ints
+     *                 to generate the legal moves into
+     */
+    public static void append(Position position, int move, StringBuilder out, int[] scratch) {
+        append(position, move, out, scratch, false);
+    }
+
+    /**
+     * writes a legal move in SAN with the check or mate mark, optionally marking
+     * an en passant capture the way players write it by hand, "exd6 e.p.", which
+     * PGN export does not allow but parse reads back
+     *
+     * @param position        passes in the Position the move is played from, it
+     *                        is left unchanged
+     * @param move            passes in a legal packed move
+     * @param out             passes in the StringBuilder to append to
+     * @param scratch         passes in an array of at least
+     *                        MoveGenerator.MAX_MOVES ints to generate the legal
+     *                        moves into
+     * @param enPassantSuffix passes in true to write " e.p." after an en passant
+     *                        capture
+     */
+    public static void append(Position position, int move, StringBuilder out, int[] scratch,
+            boolean enPassantSuffix) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+        int type = position.getPiece(from) % 6;
+
+        if (flags == PackedMove.KING_CASTLE) {
+            out.append("O-O");
+        } else if (flags == PackedMove.QUEEN_CASTLE) {
+            out.append("O-O-O");
+        } else if (type == Position.PAWN) {
+            if (PackedMove.isCapture(move)) {
+                out.append((char) ('a' + (from & 7))).append('x');
+            }
+            appendSquare(out, to);
+            if (PackedMove.isPromotion(move)) {
+                out.append('=').append(PIECE_LETTERS.charAt(PackedMove.promotionType(move)));
+            }
+            if (enPassantSuffix && flags == PackedMove.EN_PASSANT) {
+                out.append(" e.p.");
+            }
+        } else {
+            out.append(PIECE_LETTERS.charAt(type));
+            appendDisambiguation(position, move, type, out, scratch);
+            if (PackedMove.isCapture(move)) {
+                out.append('x');
+            }
+            appendSquare(out, to);
+        }
+
+        position.makeMove(move);
+        if (position.isInCheck(position.getSideToMove())) {
+            out.append(MoveGenerator.generateLegalMoves(position, scratch) == 0 ? '#' : '+');
+        }
+        position.unmakeMove(move);
+    }
+
+    /**
+     * writes a legal move in SAN
+     *
+     * @param position passes in the Position the move is played from, it is left
+     *                 unchanged
+     * @param move     passes in a legal packed move
+     * @return returns the SAN string
+     */
+    public static String toString(Position position, int move) {
+        StringBuilder out = new StringBuilder(8);
+        append(position, move, out, new int[MoveGenerator.MAX_MOVES]);
+        return out.toString();
+    }
+
+    /**
+     * writes a move of the player whose turn it is in the object model in SAN
+     *
+     * @param chess     passes in the game, it is left unchanged
+     * @param move      passes in a legal Move with from and to Coordinates
+     * @param promotion passes in the name of the piece a Pawn reaching the last
+     *                  rank becomes, such as "Knight", null for a Queen
+     * @return returns the SAN string
+     */
+    public static String toString(Chess chess, Move move, String promotion) {
+        return toString(chess.getPosition(), PackedMove.fromMove(move, chess.getBoard(), promotion));
+    }
+
+    /**
+     * finds the legal move a SAN string stands for in the object model, the
+     * Position the game keeps in step is read so nothing is copied, the
+     * promotion piece is in the packed move for PackedMove.promotionName
+     *
+     * @param chess   passes in the game, it is left unchanged
+     * @param san     passes in the move in SAN
+     * @param scratch passes in an array of at least MoveGenerator.MAX_MOVES ints
+     *                to generate the legal moves into
+     * @return returns the packed move or PackedMove.NONE if the string is not a
+     *         legal move or could mean more than one move
+     */
+    public static int parse(Chess chess, CharSequence san, int[] scratch) {
+        return parse(chess.getPosition(), san, scratch);
+    }
+
+    /**
+     * reads a SAN move of the player whose turn it is in the object model
+     *
+     * @param chess passes in the game, it is left unchanged
+     * @param san   passes in the move in SAN
+     * @return returns a Move with from and to Coordinates, null if the string is
+     *         not a legal move, the piece a Pawn promotes into is given by
+     *         promotionName, parse gives both from one lookup
+     */
+    public static Move toMove(Chess chess, CharSequence san) {
+        int move = parse(chess, san, new int[MoveGenerator.MAX_MOVES]);
+        if (move == PackedMove.NONE) {
+            return null;
+        }
+        return new Move(Coordinate.getCoordinate(PackedMove.from(move)),
+                Coordinate.getCoordinate(PackedMove.to(move)));
+    }
+
+    /**
+     * @param chess passes in the game, it is left unchanged
+     * @param san   passes in a SAN move that promotes a Pawn
+     * @return returns the name of the piece the Pawn becomes as Chess expects it,
+     *         such as "Queen", null if the string is not a legal promotion
+     */
+    public static String promotionName(Chess chess, CharSequence san) {
+        return PackedMove.promotionName(parse(chess, san, new int[MoveGenerator.MAX_MOVES]));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * writes the from file, rank or square a piece move needs so no other piece of
+     * the same type that can reach the square is meant, the file is preferred
+     */
+    private static void appendDisambiguation(Position position, int move, int type, StringBuilder out,
+            int[] scratch) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (reachers(position, type, to) == Bitboard.bit(from)) {
+            return;
+        }
+        int count = MoveGenerator.generateLegalMoves(position, scratch);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = PackedMove.from(scratch[i]);
+            if (other != from && PackedMove.to(scratch[i]) == to && position.getPiece(other) % 6 == type) {
+                ambiguous = true;
+                sameFile |= (other & 7) == (from & 7);
+                sameRank |= (other >>> 3) == (from >>> 3);
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            out.append((char) ('a' + (from & 7)));
+        } else if (!sameRank) {
+            out.append((char) ('1' + (from >>> 3)));
+        } else {
+            appendSquare(out, from);
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the pieces of the side to move of a type that attack a square,
+     * pinned ones included, when the moving piece is the only one the legal moves
+     * do not have to be generated to know no disambiguation is needed
+     */
+    private static long reachers(Position position, int type, int square) {
+        long occupied = position.getOccupied();
+        long attacks;
+        switch (type) {
+            case Position.KNIGHT:
+                attacks = Bitboard.KNIGHT_ATTACKS[square];
+                break;
+            case Position.BISHOP:
+                attacks = Bitboard.bishopAttacks(square, occupied);
+                break;
+            case Position.ROOK:
+                attacks = Bitboard.rookAttacks(square, occupied);
+                break;
+            case Position.QUEEN:
+                attacks = Bitboard.bishopAttacks(square, occupied) | Bitboard.rookAttacks(square, occupied);
+                break;
+            default:
+                attacks = Bitboard.KING_ATTACKS[square];
+                break;
+        }
+        return attacks & position.getPieces(position.getSideToMove(), type);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * writes a square such as "e4"
+     */
+    private static void appendSquare(StringBuilder out, int square) {
+        out.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the length of the SAN string without check marks, annotation marks
+     * and a trailing "e.p."
+     */
+    private static int trimmedEnd(CharSequence san) {
+        int end = san.length();
+        while (end > 0) {
+            char c = san.charAt(end - 1);
+            if (c == '+' || c == '#' || c == '!' || c == '?' || c == ' ') {
+                end--;
+            } else if (end >= 4 && c == '.' && san.charAt(end - 2) == 'p' && san.charAt(end - 3) == '.'
+                    && san.charAt(end - 4) == 'e') {
+                end -= 4;
+            } else {
+                break;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * checks if the string is "O-O" (length 3) or "O-O-O" (length 5) written with
+     * the given castling letter
+     */
+    private static boolean isCastle(CharSequence san, int end, char letter, int length) {
+        if (end != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (san.charAt(i) != (i % 2 == 0 ? letter : '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+
+}
@@ -0,0 +1,239 @@
+package engine;
+
+import bitboard.Bitboard;
+import bitboard.PieceSquareTables;
+import bitboard.Position;
+
+/**
+ * class that scores a Position in centipawns from the side to move's point of
+ * view, positive scores are good for the side to move
+ *
+ * material and piece-square scores are kept up to date by the Position as moves
+ * are made, so evaluating only adds mobility, king safety and pawn structure and
+ * blends the middlegame and endgame scores by the game phase, the pawn structure
+ * terms only depend on the pawns and kings so they can be cached in a
+ * PawnHashTable
+ *
+ * @author Jackson Shortell
+ */
+public final class Evaluation {
+
+    /**
+     * score for each square a piece attacks that is not its own piece or guarded
+     * by an enemy pawn, indexed by type
+     */
+    private static final int[] MOBILITY_MIDDLEGAME = { 0, 4, 5, 2, 1, 0 };
+    private static final int[] MOBILITY_ENDGAME = { 0, 4, 5, 4, 2, 0 };
+
+    /**
+     * how much each attack on the squares around a king counts toward its danger,
+     * indexed by type of the attacker
+     */
+    private static final int[] KING_ATTACK_WEIGHTS = { 0, 2, 2, 3, 5, 0 };
+    private static final int MAX_KING_DANGER = 500;
+    /**
+     * middlegame bonus for each own pawn on the two ranks in front of the king
+     */
+    private static final int PAWN_SHIELD = 10;
+
+    /**
+     * bonus of a passed pawn by how many ranks it has advanced
+     */
+    private static final int[] PASSED_MIDDLEGAME = { 0, 5, 10, 15, 25, 40, 60, 0 };
+    private static final int[] PASSED_ENDGAME = { 0, 10, 20, 35, 55, 85, 120, 0 };
+    private static final int DOUBLED_MIDDLEGAME = 10;
+    private static final int DOUBLED_ENDGAME = 20;
+    private static final int ISOLATED_MIDDLEGAME = 10;
+    private static final int ISOLATED_ENDGAME = 15;
+    private static final int BACKWARD_MIDDLEGAME = 8;
+    private static final int BACKWARD_ENDGAME = 10;
+
+    /**
+     * the files beside each file
+     */
+    private static final long[] ADJACENT_FILES = new long[8];
+    /**
+     * squares in front of a square on the ranks ahead of it for a color, indexed by
+     * [color][square]
+     */
+    private static final long[][] AHEAD = new long[2][64];
+
+    private Evaluation() {
+    }
+
+    /**
+     * scores a Position by material, piece-square tables, mobility and king safety
+     *
+     * @param position passes in the Position to score
+     * @return returns the score for the side to move
+     */
+    public static int evaluate(Position position) {
+        return evaluate(position, null);
+    }
+
+    /**
+     * scores a Position, the pawn structure scores are taken from a PawnHashTable
+     * when it holds the pawn key and stored there when it does not
+     *
+     * @param position passes in the Position to score
+     * @param pawns    passes in the PawnHashTable of the calling thread, may be null
+     * @return returns the score for the side to move
+     */
+    public static int evaluate(Position position, PawnHashTable pawns) {
+        int middlegame = position.getMiddlegameScore();
+        int endgame = position.getEndgameScore();
+        long pawnKey = position.getPawnKey();
+        int slot = pawns == null ? PawnHashTable.MISS : pawns.find(pawnKey);
+        long structure;
+        if (slot != PawnHashTable.MISS) {
+            structure = pawns.getScores(slot);
+        } else {
+            structure = pawnStructure(position);
+            if (pawns != null) {
+                pawns.store(pawnKey, structure);
+            }
+        }
+        middlegame += PawnHashTable.middlegameOf(structure);
+        endgame += PawnHashTable.endgameOf(structure);
+        long occupied = position.getOccupied();
+        for (int color = Position.WHITE; color <= Position.BLACK; color++) {
+            int sign = color == Position.WHITE ? 1 : -1;
+            int enemy = color ^ 1;
+            long safe = ~position.getOccupancy(color) & ~pawnAttacks(position.getPieces(enemy, Position.PAWN), enemy);
+            int enemyKing = position.getKingSquare(enemy);
+            long kingZone = Bitboard.KING_ATTACKS[enemyKing] | Bitboard.bit(enemyKing);
+            int attackers = 0;
+            int danger = 0;
+            for (int type = Position.KNIGHT; type <= Position.QUEEN; type++) {
+                long pieces = position.getPieces(color, type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    long attacks = attacks(type, square, occupied);
+                    int mobility = Long.bitCount(attacks & safe);
+                    middlegame += sign * MOBILITY_MIDDLEGAME[type] * mobility;
+                    endgame += sign * MOBILITY_ENDGAME[type] * mobility;
+                    long near = attacks & kingZone;
+                    if (near != 0) {
+                        attackers++;
+                        danger += KING_ATTACK_WEIGHTS[type] * Long.bitCount(near);
+                    }
+                }
+            }
+            if (attackers > 1) {
+                middlegame += sign * Math.min(danger * danger / 2, MAX_KING_DANGER);
+            }
+        }
+        int phase = Math.min(position.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase))
+                / PieceSquareTables.MAX_PHASE;
+        return position.getSideToMove() == Position.WHITE ? score : -score;
+    }
+
+    /**
+     * scores the passed, doubled, isolated and backward pawns and the pawn shields
+     * of both kings, only pawns and kings are looked at so the result can be
+     * cached by pawn key, both scores are packed into one long so nothing is
+     * allocated on a pawn table miss
+     *
+     * @param position passes in the Position to score
+     * @return returns the middlegame and endgame scores from white's point of view
+     *         packed by PawnHashTable.pack
+     */
+    public static long pawnStructure(Position position) {
+        int middlegame = 0;
+        int endgame = 0;
+        for (int color = Position.WHITE; color <= Position.BLACK; color++) {
+            int sign = color == Position.WHITE ? 1 : -1;
+            int enemy = color ^ 1;
+            long own = position.getPieces(color, Position.PAWN);
+            long enemies = position.getPieces(enemy, Position.PAWN);
+            long pawns = own;
+            while (pawns != 0) {
+                int square = Long.numberOfTrailingZeros(pawns);
+                pawns &= pawns - 1;
+                int file = square & 7;
+                long fileMask = Bitboard.FILE_A << file;
+                long ahead = AHEAD[color][square];
+                if ((enemies & (fileMask | ADJACENT_FILES[file]) & ahead) == 0) {
+                    int advanced = color == Position.WHITE ? square >>> 3 : 7 - (square >>> 3);
+                    middlegame += sign * PASSED_MIDDLEGAME[advanced];
+                    endgame += sign * PASSED_ENDGAME[advanced];
+                }
+                if ((own & fileMask & ahead) != 0) {
+                    middlegame -= sign * DOUBLED_MIDDLEGAME;
+                    endgame -= sign * DOUBLED_ENDGAME;
+                }
+                if ((own & ADJACENT_FILES[file]) == 0) {
+                    middlegame -= sign * ISOLATED_MIDDLEGAME;
+                    endgame -= sign * ISOLATED_ENDGAME;
+                } else if ((own & ADJACENT_FILES[file] & ~ahead) == 0) {
+                    int stop = color == Position.WHITE ? square + 8 : square - 8;
+                    if ((Bitboard.PAWN_ATTACKS[color][stop] & enemies) != 0) {
+                        middlegame -= sign * BACKWARD_MIDDLEGAME;
+                        endgame -= sign * BACKWARD_ENDGAME;
+                    }
+                }
+            }
+            middlegame += sign * PAWN_SHIELD * Long.bitCount(shield(position.getKingSquare(color), color) & own);
+        }
+        return PawnHashTable.pack(middlegame, endgame);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the squares a knight, bishop, rook or queen on a square attacks
+     */
+    private static long attacks(int type, int square, long occupied) {
+        switch (type) {
+            case Position.KNIGHT:
+                return Bitboard.KNIGHT_ATTACKS[square];
+            case Position.BISHOP:
+                return Bitboard.bishopAttacks(square, occupied);
+            case Position.ROOK:
+                return Bitboard.rookAttacks(square, occupied);
+            default:
+                return Bitboard.queenAttacks(square, occupied);
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns every square the pawns of a color attack
+     */
+    private static long pawnAttacks(long pawns, int color) {
+        if (color == Position.WHITE) {
+            return ((pawns & ~Bitboard.FILE_A) << 7) | ((pawns & ~Bitboard.FILE_H) << 9);
+        }
+        return ((pawns & ~Bitboard.FILE_A) >>> 9) | ((pawns & ~Bitboard.FILE_H) >>> 7);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the squares of the king's file and the files beside it on the two
+     * ranks in front of the king
+     */
+    private static long shield(int king, int color) {
+        long row = (Bitboard.KING_ATTACKS[king] | Bitboard.bit(king)) & (Bitboard.RANK_1 << (king & 56));
+        if (color == Position.WHITE) {
+            return (row << 8) | (row << 16);
+        }
+        return (row >>> 8) | (row >>> 16);
+    }
+
+    /**
+     * fills the file and rank masks once when the class is loaded
+     */
+    static {
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? Bitboard.FILE_A << (file - 1) : 0L)
+                    | (file < 7 ? Bitboard.FILE_A << (file + 1) : 0L);
+        }
+        for (int square = 0; square < 64; square++) {
+            int rank = square >>> 3;
+            AHEAD[Position.WHITE][square] = rank == 7 ? 0L : -1L << (8 * (rank + 1));
+            AHEAD[Position.BLACK][square] = rank == 0 ? 0L : -1L >>> (8 * (8 - rank));
+        }
+    }
+
+}
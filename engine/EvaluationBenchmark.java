@@ -0,0 +1,86 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bitboard.Fen;
+import bitboard.MoveGenerator;
+import bitboard.MoveList;
+import bitboard.Position;
+
+/**
+ * class that measures how many evaluations a second Evaluation.evaluate runs, the
+ * corpus is a fixed set of positions plus every position one legal move away
+ * from them so the same positions are scored on every run
+ *
+ * usage: java engine.EvaluationBenchmark [rounds]
+ *
+ * @author Jackson Shortell
+ */
+public class EvaluationBenchmark {
+
+    private static final String[] POSITIONS = { Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1", "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1" };
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        Position[] corpus = buildCorpus();
+        System.out.println("positions " + corpus.length + " rounds " + rounds);
+
+        long checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += evaluateAll(corpus);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            checksum += evaluateAll(corpus);
+        }
+        long elapsed = System.nanoTime() - start;
+        long evaluations = (long) corpus.length * rounds;
+        System.out.println("evaluations: " + evaluations);
+        System.out.println("time: " + elapsed / 1000000 + " ms");
+        System.out.println("evaluations/second: " + evaluations * 1000000000L / Math.max(1, elapsed));
+        System.out.println("checksum: " + checksum);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * scores every position of the corpus once, the scores are summed so the work
+     * can not be skipped
+     */
+    private static long evaluateAll(Position[] corpus) {
+        long sum = 0;
+        for (Position position : corpus) {
+            sum += Evaluation.evaluate(position);
+        }
+        return sum;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * copies every fixed position and every position one legal move away
+     */
+    private static Position[] buildCorpus() {
+        List<Position> corpus = new ArrayList<>();
+        MoveList moves = new MoveList();
+        for (String fen : POSITIONS) {
+            Position position = Fen.toPosition(fen);
+            corpus.add(new Position(position));
+            MoveGenerator.generateLegalMoves(position, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                position.makeMove(moves.get(i));
+                corpus.add(new Position(position));
+                position.unmakeMove(moves.get(i));
+            }
+        }
+        return corpus.toArray(new Position[0]);
+    }
+
+}
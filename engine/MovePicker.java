@@ -0,0 +1,234 @@
+package engine;
+
+import bitboard.MoveGenerator;
+import bitboard.PackedMove;
+import bitboard.PieceSquareTables;
+import bitboard.Position;
+
+/**
+ * class that hands out the legal moves of a node one at a time in the order the
+ * search should try them, each stage is only generated when the stage before it
+ * runs out, so a cutoff on the transposition move or a good capture never pays
+ * for generating the quiet moves
+ *
+ * the order is the transposition move, captures and promotions that do not lose
+ * material by MVV-LVA, the two killer moves of the ply, quiet moves by history
+ * score and last the captures that lose material, moves already handed out in
+ * an earlier stage are skipped, one MovePicker per ply is reused by the search
+ *
+ * @author Jackson Shortell
+ */
+public class MovePicker {
+
+    private static final int TABLE_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int BAD_CAPTURES = 7;
+    private static final int DONE = 8;
+
+    private final int[] moves;
+    private final int[] scores;
+    private final int[] badCaptures;
+    /**
+     * used to check the table move and to work out static exchanges
+     */
+    private final int[] scratch;
+    private int size;
+    private int index;
+    private int badCount;
+    private int badIndex;
+
+    private int stage;
+    private boolean capturesOnly;
+    private Position position;
+    private int tableMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int[][][] history;
+
+    public MovePicker() {
+        this.moves = new int[MoveGenerator.MAX_MOVES];
+        this.scores = new int[MoveGenerator.MAX_MOVES];
+        this.badCaptures = new int[MoveGenerator.MAX_MOVES];
+        this.scratch = new int[MoveGenerator.MAX_MOVES];
+        this.stage = DONE;
+    }
+
+    /**
+     * starts picking every legal move of a Position
+     *
+     * @param position     passes in the Position of the node
+     * @param tableMove    passes in the move from the transposition table or
+     *                     PackedMove.NONE
+     * @param firstKiller  passes in the newest killer move of the ply or NONE
+     * @param secondKiller passes in the older killer move of the ply or NONE
+     * @param history      passes in the history scores indexed by
+     *                     [color][from][to]
+     */
+    public void init(Position position, int tableMove, int firstKiller, int secondKiller, int[][][] history) {
+        this.position = position;
+        this.capturesOnly = false;
+        this.history = history;
+        this.tableMove = MoveGenerator.isLegal(position, tableMove, scratch) ? tableMove : PackedMove.NONE;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller == firstKiller ? PackedMove.NONE : secondKiller;
+        this.badCount = 0;
+        this.badIndex = 0;
+        this.stage = TABLE_MOVE;
+    }
+
+    /**
+     * starts picking only the captures and promotions that do not lose material,
+     * the moves of a quiescence search
+     *
+     * @param position passes in the Position of the node
+     */
+    public void initCaptures(Position position) {
+        this.position = position;
+        this.capturesOnly = true;
+        this.tableMove = PackedMove.NONE;
+        this.firstKiller = PackedMove.NONE;
+        this.secondKiller = PackedMove.NONE;
+        this.badCount = 0;
+        this.badIndex = 0;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    /**
+     * @return returns the next move to try or PackedMove.NONE when every move has
+     *         been handed out
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case TABLE_MOVE:
+                    stage = GENERATE_CAPTURES;
+                    if (tableMove != PackedMove.NONE) {
+                        return tableMove;
+                    }
+                    break;
+                case GENERATE_CAPTURES:
+                    size = MoveGenerator.generateLegalCaptures(position, moves);
+                    index = 0;
+                    for (int i = 0; i < size; i++) {
+                        scores[i] = captureScore(position, moves[i]);
+                    }
+                    stage = GOOD_CAPTURES;
+                    break;
+                case GOOD_CAPTURES:
+                    while (index < size) {
+                        int move = pickBest();
+                        if (move == tableMove) {
+                            continue;
+                        }
+                        if (!StaticExchange.isAtLeast(position, move, 0, scratch)) {
+                            if (!capturesOnly) {
+                                badCaptures[badCount++] = move;
+                            }
+                            continue;
+                        }
+                        return move;
+                    }
+                    stage = capturesOnly ? DONE : FIRST_KILLER;
+                    break;
+                case FIRST_KILLER:
+                    stage = SECOND_KILLER;
+                    if (isUsableKiller(firstKiller)) {
+                        return firstKiller;
+                    }
+                    break;
+                case SECOND_KILLER:
+                    stage = GENERATE_QUIETS;
+                    if (isUsableKiller(secondKiller)) {
+                        return secondKiller;
+                    }
+                    break;
+                case GENERATE_QUIETS:
+                    size = MoveGenerator.generateLegalQuiets(position, moves);
+                    index = 0;
+                    int[][] sideHistory = history[position.getSideToMove()];
+                    for (int i = 0; i < size; i++) {
+                        scores[i] = sideHistory[PackedMove.from(moves[i])][PackedMove.to(moves[i])];
+                    }
+                    stage = QUIETS;
+                    break;
+                case QUIETS:
+                    while (index < size) {
+                        int move = pickBest();
+                        if (move != tableMove && move != firstKiller && move != secondKiller) {
+                            return move;
+                        }
+                    }
+                    stage = BAD_CAPTURES;
+                    break;
+                case BAD_CAPTURES:
+                    if (badIndex < badCount) {
+                        return badCaptures[badIndex++];
+                    }
+                    stage = DONE;
+                    break;
+                default:
+                    return PackedMove.NONE;
+            }
+        }
+    }
+
+    /**
+     * scores a move for MVV-LVA ordering, the most valuable victim first and the
+     * least valuable attacker first among equal victims, promotions count as
+     * capturing the promoted piece and quiet moves score 0
+     *
+     * @param position passes in the Position the move is played from
+     * @param move     passes in a packed move
+     * @return returns the ordering score
+     */
+    public static int captureScore(Position position, int move) {
+        int score = 0;
+        if (PackedMove.flags(move) == PackedMove.EN_PASSANT) {
+            score = PieceSquareTables.MIDDLEGAME_VALUES[Position.PAWN] * 10;
+        } else if (position.getPiece(PackedMove.to(move)) != Position.NONE) {
+            score = PieceSquareTables.MIDDLEGAME_VALUES[position.getPiece(PackedMove.to(move)) % 6] * 10;
+        }
+        if (PackedMove.isPromotion(move)) {
+            score += PieceSquareTables.MIDDLEGAME_VALUES[PackedMove.promotionType(move)] * 10;
+        }
+        if (score == 0) {
+            return 0;
+        }
+        return score - StaticExchange.VALUES[position.getPiece(PackedMove.from(move)) % 6] / 100;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * swaps the highest scored remaining move to the front of the remaining moves
+     * and hands it out, a selection sort that stops as soon as the search does
+     */
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < size; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        index++;
+        return move;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * a killer is tried only if it is a legal quiet move here that was not
+     * already tried as the transposition move
+     */
+    private boolean isUsableKiller(int killer) {
+        return killer != PackedMove.NONE && killer != tableMove && !PackedMove.isCapture(killer)
+                && !PackedMove.isPromotion(killer) && MoveGenerator.isLegal(position, killer, scratch);
+    }
+
+}
@@ -0,0 +1,204 @@
+package engine;
+
+import bitboard.Fen;
+import bitboard.PackedMove;
+import bitboard.Position;
+import model.Chess;
+
+/**
+ * class that searches one position with several threads at once (lazy SMP),
+ * every thread runs its own Search on the same root and they only talk through
+ * a shared TranspositionTable, so the helpers fill the table with results the
+ * main thread then finds instead of searching them again
+ *
+ * helper threads start at staggered depths and skip depths so they are not all
+ * searching the same tree at the same time, the main thread decides when the
+ * search is over and the deepest finished result of any thread is played
+ *
+ * usage: java engine.ParallelSearch [threads] [depth] [fen]
+ *
+ * @author Jackson Shortell
+ */
+public class ParallelSearch {
+
+    private final TranspositionTable table;
+    private Search[] searches;
+    private SearchObserver observer;
+    private SearchOptions options;
+
+    /**
+     * @param threads passes in how many threads search, at least 1
+     * @param table   passes in the TranspositionTable the threads share
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        this.table = table;
+        this.options = SearchOptions.fromSystemProperties();
+        setThreads(threads);
+    }
+
+    /**
+     * @param threads passes in how many threads search, at least 1
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(Integer.getInteger("chess.hash", TranspositionTable.DEFAULT_MEGABYTES)));
+    }
+
+    /**
+     * changes the number of threads, must not be called while searching
+     *
+     * @param threads passes in how many threads search, at least 1
+     */
+    public void setThreads(int threads) {
+        this.searches = new Search[Math.max(1, threads)];
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = new Search(table);
+            searches[i].setOptions(options);
+            searches[i].setGroup(this);
+        }
+        searches[0].register(observer);
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public SearchOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * changes the selective search techniques of every thread, must not be called
+     * while searching
+     *
+     * @param options passes in which selective search techniques to use, a copy is
+     *                kept
+     */
+    public void setOptions(SearchOptions options) {
+        this.options = new SearchOptions(options);
+        for (Search search : searches) {
+            search.setOptions(options);
+        }
+    }
+
+    /**
+     * registers an observer to be told about each iteration the main thread
+     * finishes
+     *
+     * @param observer passes in an observer
+     */
+    public void register(SearchObserver observer) {
+        this.observer = observer;
+        searches[0].register(observer);
+    }
+
+    /**
+     * asks every thread to stop as soon as possible, safe to call from another
+     * thread
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * @return returns the nodes searched by all threads so far
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (Search search : searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * searches the current position of the object model
+     *
+     * @param chess  passes in an instance of Chess, it is left unchanged
+     * @param limits passes in when to stop
+     * @return returns the combined result of all threads
+     */
+    public SearchResult search(Chess chess, SearchLimits limits) {
+        return search(new Position(chess), limits);
+    }
+
+    /**
+     * searches a Position on every thread until the main thread is done, every
+     * thread is reset before any of them starts so the stop that ends the search
+     * also reaches helpers that have not started yet, the node limit counts the
+     * nodes of all threads
+     *
+     * @param root   passes in the Position to search, it is left unchanged
+     * @param limits passes in when to stop
+     * @return returns the deepest result of any thread with the nodes of all of
+     *         them
+     */
+    public SearchResult search(Position root, SearchLimits limits) {
+        long startTime = System.currentTimeMillis();
+        table.newSearch();
+        for (Search search : searches) {
+            search.reset();
+        }
+        SearchResult[] results = new SearchResult[searches.length];
+        Thread[] helpers = new Thread[searches.length - 1];
+        for (int i = 1; i < searches.length; i++) {
+            int index = i;
+            helpers[i - 1] = new Thread(() -> results[index] = searches[index].iterate(root, limits,
+                    1 + index % 2, 1 + index / 2 % 2), "search-helper-" + i);
+            helpers[i - 1].setDaemon(true);
+            helpers[i - 1].start();
+        }
+        results[0] = searches[0].iterate(root, limits, 1, 1);
+        stop();
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return combine(results, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * picks the result of the deepest finished iteration, the main thread wins
+     * ties since it searched every depth
+     */
+    private SearchResult combine(SearchResult[] results, long elapsedMillis) {
+        SearchResult best = results[0];
+        for (SearchResult result : results) {
+            if (result != null && result.getBestMove() != PackedMove.NONE && result.getDepth() > best.getDepth()) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), best.getPrincipalVariation(),
+                getNodes(), elapsedMillis);
+    }
+
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        Position position;
+        if (args.length > 2) {
+            String fen = "";
+            for (int i = 2; i < args.length; i++) {
+                fen += args[i] + " ";
+            }
+            position = Fen.toPosition(fen.trim());
+        } else {
+            position = new Position(new Chess());
+        }
+        ParallelSearch search = new ParallelSearch(threads);
+        search.register(result -> System.out.println(result));
+        SearchResult result = search.search(position, SearchLimits.depth(depth));
+        System.out.println("threads " + threads + " " + result);
+        System.out.println("bestmove " + PackedMove.toString(result.getBestMove()));
+    }
+
+}
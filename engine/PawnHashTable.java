@@ -0,0 +1,159 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * class that caches the pawn structure scores of the evaluation by the pawn key
+ * of a Position, the key only covers pawns and kings so the same entry is used
+ * by every position with the same pawn skeleton and king squares
+ *
+ * each search thread keeps its own table so there is no sharing between threads,
+ * an entry is always replaced by the newest structure that maps to its slot
+ *
+ * @author Jackson Shortell
+ */
+public class PawnHashTable {
+
+    /**
+     * number of entries when none is given, 16384 entries of 16 bytes
+     */
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    /**
+     * returned by find when the pawn key is not in the table
+     */
+    public static final int MISS = -1;
+
+    private final long[] keys;
+    /**
+     * middlegame score in the high 32 bits and endgame score in the low 32 bits
+     */
+    private final long[] scores;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    public PawnHashTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * @param entries passes in the number of entries, rounded down to a power of
+     *                two
+     */
+    public PawnHashTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        this.keys = new long[size];
+        this.scores = new long[size];
+        this.mask = size - 1;
+        this.probes = 0;
+        this.hits = 0;
+    }
+
+    /**
+     * looks up a pawn key
+     *
+     * @param key passes in the pawn key of a Position
+     * @return returns the slot holding the key or MISS
+     */
+    public int find(long key) {
+        probes++;
+        int slot = (int) key & mask;
+        if (keys[slot] == key && key != 0) {
+            hits++;
+            return slot;
+        }
+        return MISS;
+    }
+
+    /**
+     * @param slot passes in a slot returned by find
+     * @return returns both cached scores packed as by pack
+     */
+    public long getScores(int slot) {
+        return scores[slot];
+    }
+
+    /**
+     * saves the packed pawn structure scores of a pawn key
+     *
+     * @param key    passes in the pawn key of a Position
+     * @param scores passes in both scores packed as by pack
+     */
+    public void store(long key, long scores) {
+        int slot = (int) key & mask;
+        keys[slot] = key;
+        this.scores[slot] = scores;
+    }
+
+    /**
+     * packs a middlegame and an endgame score into one long the way the table
+     * stores them
+     *
+     * @param middlegame passes in the middlegame score
+     * @param endgame    passes in the endgame score
+     * @return returns the middlegame score in the high 32 bits and the endgame
+     *         score in the low 32 bits
+     */
+    public static long pack(int middlegame, int endgame) {
+        return ((long) middlegame << 32) | (endgame & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param scores passes in scores packed by pack
+     * @return returns the middlegame score
+     */
+    public static int middlegameOf(long scores) {
+        return (int) (scores >> 32);
+    }
+
+    /**
+     * @param scores passes in scores packed by pack
+     * @return returns the endgame score
+     */
+    public static int endgameOf(long scores) {
+        return (int) scores;
+    }
+
+    /**
+     * empties the table, the counters are kept
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+    }
+
+    public int getEntryCount() {
+        return keys.length;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return returns the share of probes that found their key, 0 before any probe
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+
+    /**
+     * sets the probe and hit counters back to 0
+     */
+    public void resetCounters() {
+        probes = 0;
+        hits = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("entries %d probes %d hits %d hit rate %.3f", keys.length, probes, hits,
+                getHitRate());
+    }
+
+}
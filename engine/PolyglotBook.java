@@ -0,0 +1,266 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import bitboard.Fen;
+import bitboard.MoveGenerator;
+import bitboard.PackedMove;
+import bitboard.Position;
+import model.Chess;
+
+/**
+ * class that reads moves from a Polyglot opening book (.bin), a file of 16 byte
+ * big endian entries sorted by the Polyglot key of the position: key (8 bytes),
+ * move (2), weight (2) and learn (4)
+ *
+ * the file is memory mapped in segments of 1 GB so books larger than 2 GB can be
+ * read, an entry never crosses a segment since 1 GB is a multiple of 16, the
+ * entries of a position are found by a binary search and are only read with
+ * absolute gets, so one book can be shared by every search thread and a lookup
+ * allocates nothing
+ *
+ * a book move is only returned if it is legal in the position, so a key that
+ * collides or a broken entry is never played
+ *
+ * usage: java engine.PolyglotBook book.bin [fen]
+ *
+ * @author Jackson Shortell
+ */
+public class PolyglotBook {
+
+    private static final int ENTRY_SIZE = 16;
+    /**
+     * log2 of the number of entries in one mapped segment, 2^26 entries of 16
+     * bytes is 1 GB
+     */
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    /**
+     * promotion piece of a Polyglot move, index 0 is no promotion
+     */
+    private static final int[] PROMOTIONS = { Position.NONE, Position.KNIGHT, Position.BISHOP, Position.ROOK,
+            Position.QUEEN };
+
+    private final Path path;
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+
+    /**
+     * @param path passes in the path of the .bin file
+     * @throws IOException if the file can not be read or its length is not a
+     *                     multiple of 16 bytes
+     */
+    public PolyglotBook(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0) {
+                throw new IOException(path + " is not a Polyglot book, its length is not a multiple of 16");
+            }
+            this.entryCount = size / ENTRY_SIZE;
+            long segmentBytes = (1L << SEGMENT_SHIFT) * ENTRY_SIZE;
+            int count = (int) ((size + segmentBytes - 1) / segmentBytes);
+            this.segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = i * segmentBytes;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentBytes, size - start));
+            }
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * finds the legal book moves of a position with their weights, nothing is
+     * allocated
+     *
+     * @param position passes in the Position to look up
+     * @param moves    passes in the array the packed moves are written to, at most
+     *                 moves.length moves are returned
+     * @param weights  passes in an array at least as long as moves for the weights
+     * @param scratch  passes in an array of at least MoveGenerator.MAX_MOVES ints
+     *                 to generate the legal moves into
+     * @return returns the number of moves found, 0 if the position is not in the
+     *         book
+     */
+    public int getMoves(Position position, int[] moves, int[] weights, int[] scratch) {
+        long key = PolyglotKey.of(position);
+        int legalCount = MoveGenerator.generateLegalMoves(position, scratch);
+        int count = 0;
+        for (long i = firstEntry(key); i < entryCount && key(i) == key && count < moves.length; i++) {
+            int move = toPackedMove(position, rawMove(i), scratch, legalCount);
+            if (move != PackedMove.NONE) {
+                moves[count] = move;
+                weights[count] = weight(i);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * picks a book move with a chance in proportion to its weight, nothing is
+     * allocated
+     *
+     * @param position passes in the Position to look up
+     * @param random   passes in a number from 0 (inclusive) to 1 (exclusive) that
+     *                 decides the move
+     * @param scratch  passes in an array of at least MoveGenerator.MAX_MOVES ints
+     *                 to generate the legal moves into
+     * @return returns the packed move or PackedMove.NONE if the position is not in
+     *         the book or every move of it has weight 0
+     */
+    public int pickMove(Position position, double random, int[] scratch) {
+        long key = PolyglotKey.of(position);
+        int legalCount = MoveGenerator.generateLegalMoves(position, scratch);
+        long first = firstEntry(key);
+        long total = 0;
+        for (long i = first; i < entryCount && key(i) == key; i++) {
+            if (toPackedMove(position, rawMove(i), scratch, legalCount) != PackedMove.NONE) {
+                total += weight(i);
+            }
+        }
+        if (total == 0) {
+            return PackedMove.NONE;
+        }
+        long target = (long) (random * total);
+        for (long i = first; i < entryCount && key(i) == key; i++) {
+            int move = toPackedMove(position, rawMove(i), scratch, legalCount);
+            if (move != PackedMove.NONE) {
+                target -= weight(i);
+                if (target < 0) {
+                    return move;
+                }
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * picks a weighted book move of the player whose turn it is in the object
+     * model, the Position the game keeps in step is looked up so nothing is
+     * copied or allocated
+     *
+     * @param chess   passes in the game, it is left unchanged
+     * @param random  passes in a number from 0 (inclusive) to 1 (exclusive) that
+     *                decides the move, such as
+     *                ThreadLocalRandom.current().nextDouble()
+     * @param scratch passes in an array of at least MoveGenerator.MAX_MOVES ints
+     *                to generate the legal moves into
+     * @return returns the packed move, which Chess.makeMove(int) can play, or
+     *         PackedMove.NONE if the position is not in the book
+     */
+    public int pickMove(Chess chess, double random, int[] scratch) {
+        return pickMove(chess.getPosition(), random, scratch);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the index of the first entry whose key is not below the given key,
+     * keys are compared unsigned as the book is sorted that way
+     */
+    private long firstEntry(long key) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong((int) ((entry & SEGMENT_MASK) * ENTRY_SIZE));
+    }
+
+    private int rawMove(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getShort((int) ((entry & SEGMENT_MASK) * ENTRY_SIZE) + 8)
+                & 0xFFFF;
+    }
+
+    private int weight(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getShort((int) ((entry & SEGMENT_MASK) * ENTRY_SIZE) + 10)
+                & 0xFFFF;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * turns a Polyglot move into the legal packed move it stands for, Polyglot
+     * writes castling as the king taking its own rook (e1h1) so a king move onto
+     * a rook of its own side is read as castling to that side
+     */
+    private static int toPackedMove(Position position, int raw, int[] legal, int legalCount) {
+        int to = raw & 0x3F;
+        int from = (raw >>> 6) & 0x3F;
+        int promotionIndex = (raw >>> 12) & 7;
+        if (promotionIndex >= PROMOTIONS.length) {
+            return PackedMove.NONE;
+        }
+        int promotion = PROMOTIONS[promotionIndex];
+
+        int piece = position.getPiece(from);
+        boolean castle = piece % 6 == Position.KING && position.getPiece(to) == piece - Position.KING + Position.ROOK;
+        for (int i = 0; i < legalCount; i++) {
+            int move = legal[i];
+            if (PackedMove.from(move) != from) {
+                continue;
+            }
+            if (castle) {
+                int flags = PackedMove.flags(move);
+                if ((flags == PackedMove.KING_CASTLE && to > from) || (flags == PackedMove.QUEEN_CASTLE && to < from)) {
+                    return move;
+                }
+            } else if (PackedMove.to(move) == to && !PackedMove.isCastle(move)
+                    && (PackedMove.isPromotion(move) ? PackedMove.promotionType(move) == promotion
+                            : promotion == Position.NONE)) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: java engine.PolyglotBook book.bin [fen]");
+            return;
+        }
+        PolyglotBook book = new PolyglotBook(Paths.get(args[0]));
+        String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                : Fen.START_POSITION;
+        Position position = Fen.toPosition(fen);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] weights = new int[MoveGenerator.MAX_MOVES];
+        int count = book.getMoves(position, moves, weights, new int[MoveGenerator.MAX_MOVES]);
+
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += weights[i];
+        }
+        System.out.println(book.getEntryCount() + " entries, key " + Long.toHexString(PolyglotKey.of(position)));
+        for (int i = 0; i < count; i++) {
+            System.out.printf("%-6s %6d %5.1f%%%n", PackedMove.toString(moves[i]), weights[i],
+                    total == 0 ? 0.0 : 100.0 * weights[i] / total);
+        }
+        if (count == 0) {
+            System.out.println("position not in the book");
+        }
+    }
+
+}
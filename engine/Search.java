@@ -0,0 +1,559 @@
+package engine;
+
+import bitboard.Fen;
+import bitboard.MoveGenerator;
+import bitboard.MoveList;
+import bitboard.PackedMove;
+import bitboard.Position;
+import model.Chess;
+
+/**
+ * class that picks a move with a negamax alpha-beta search, the search deepens
+ * one ply at a time until it reaches the depth limit, the node budget or the
+ * wall clock deadline, whichever comes first, and keeps the result of the last
+ * finished iteration, below the depth limit a quiescence search plays out
+ * captures so no position is scored in the middle of an exchange
+ *
+ * results are shared through a TranspositionTable, its size in megabytes is
+ * read from the chess.hash system property when no table is passed in
+ *
+ * null move pruning, late move reductions, futility pruning and check
+ * extensions are each switched by the SearchOptions of the search
+ *
+ * usage: java [-Dchess.hash=mb] [-Dchess.nullMove=false ...] engine.Search
+ * [depth] [fen]
+ *
+ * @author Jackson Shortell
+ */
+public class Search {
+
+    public static final int MAX_DEPTH = 64;
+    /**
+     * the most plies from the root a search can reach
+     */
+    public static final int MAX_PLY = 128;
+    public static final int INFINITY = 32000;
+    /**
+     * score of being checkmated at the root, mates further away score closer to 0
+     */
+    public static final int MATE = 31000;
+
+    /**
+     * how many nodes pass between checks of the clock
+     */
+    private static final int CHECK_INTERVAL = 1024;
+    /**
+     * history score at which every history score is halved
+     */
+    private static final int MAX_HISTORY = 1 << 20;
+    /**
+     * plies a null move search is reduced by on top of the move itself, one more
+     * for every 6 plies of depth
+     */
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    /**
+     * how far below alpha the static score may be at depth 1 and 2 before quiet
+     * moves are skipped
+     */
+    private static final int[] FUTILITY_MARGINS = { 0, 200, 400 };
+    private static final int LATE_MOVE_MIN_DEPTH = 3;
+    /**
+     * moves searched to full depth at each node before late move reductions start
+     */
+    private static final int LATE_MOVE_FULL_SEARCHES = 3;
+    /**
+     * plies a late quiet move is reduced by, indexed by [depth][move number],
+     * growing with the log of both
+     */
+    private static final int[][] REDUCTIONS = new int[MAX_DEPTH + 1][MoveGenerator.MAX_MOVES + 1];
+
+    static {
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            for (int count = 1; count <= MoveGenerator.MAX_MOVES; count++) {
+                REDUCTIONS[depth][count] = (int) (0.75 + Math.log(depth) * Math.log(count) / 2.25);
+            }
+        }
+    }
+
+    /**
+     * a move picker for each ply so searching allocates nothing
+     */
+    private final MovePicker[] pickers;
+    /**
+     * the two most recent quiet moves that caused a beta cutoff at each ply
+     */
+    private final int[][] killers;
+    /**
+     * how often each quiet move caused a cutoff weighted by depth, indexed by
+     * [color][from][to]
+     */
+    private final int[][][] history;
+    private final MoveList rootMoves;
+    /**
+     * triangular table of principal variations, row ply holds the best line found
+     * from that ply
+     */
+    private final int[][] pvTable;
+    private final int[] pvLength;
+    private final TranspositionTable table;
+    /**
+     * pawn structure scores of this search thread
+     */
+    private final PawnHashTable pawnTable;
+    private SearchOptions options;
+
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private long startTime;
+    private volatile boolean stopped;
+    private SearchObserver observer;
+    /**
+     * the ParallelSearch this search is a thread of, its node count is the one
+     * checked against the node limit, null when searching alone
+     */
+    private ParallelSearch group;
+
+    public Search() {
+        this(new TranspositionTable(Integer.getInteger("chess.hash", TranspositionTable.DEFAULT_MEGABYTES)));
+    }
+
+    /**
+     * @param table passes in the TranspositionTable to share results through
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        this.pawnTable = new PawnHashTable();
+        this.options = SearchOptions.fromSystemProperties();
+        this.pickers = new MovePicker[MAX_PLY];
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker();
+        }
+        this.killers = new int[MAX_PLY][2];
+        this.history = new int[2][64][64];
+        this.rootMoves = new MoveList();
+        this.pvTable = new int[MAX_PLY][MAX_PLY];
+        this.pvLength = new int[MAX_PLY];
+    }
+
+    /**
+     * registers an observer to be told about each finished iteration
+     *
+     * @param observer passes in an observer
+     */
+    public void register(SearchObserver observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * asks a running search to stop as soon as possible, safe to call from another
+     * thread
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * sets the node count back to 0 and clears a stop request, done before any
+     * thread of a search starts so threads that start late neither report the
+     * nodes of the last search nor miss a stop that came while they started
+     */
+    void reset() {
+        nodes = 0;
+        stopped = false;
+    }
+
+    /**
+     * @param group passes in the ParallelSearch this search is a thread of
+     */
+    void setGroup(ParallelSearch group) {
+        this.group = group;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public PawnHashTable getPawnTable() {
+        return pawnTable;
+    }
+
+    public SearchOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @param options passes in which selective search techniques to use, a copy is
+     *                kept
+     */
+    public void setOptions(SearchOptions options) {
+        this.options = new SearchOptions(options);
+    }
+
+    /**
+     * searches the current position of the object model
+     *
+     * @param chess  passes in an instance of Chess, it is left unchanged
+     * @param limits passes in when to stop
+     * @return returns the result of the last finished iteration
+     */
+    public SearchResult search(Chess chess, SearchLimits limits) {
+        return search(new Position(chess), limits);
+    }
+
+    /**
+     * searches a Position with iterative deepening
+     *
+     * @param root   passes in the Position to search, it is left unchanged
+     * @param limits passes in when to stop
+     * @return returns the result of the last finished iteration
+     */
+    public SearchResult search(Position root, SearchLimits limits) {
+        table.newSearch();
+        reset();
+        return iterate(root, limits, 1, 1);
+    }
+
+    /**
+     * runs iterative deepening without starting a new search in the table or
+     * calling reset, used directly by ParallelSearch so helper threads can search
+     * staggered depths
+     *
+     * @param root       passes in the Position to search, it is left unchanged
+     * @param limits     passes in when to stop
+     * @param firstDepth passes in the depth of the first iteration
+     * @param step       passes in how many plies each iteration goes deeper
+     * @return returns the result of the last finished iteration
+     */
+    SearchResult iterate(Position root, SearchLimits limits, int firstDepth, int step) {
+        Position position = new Position(root);
+        startTime = System.currentTimeMillis();
+        deadline = limits.getMoveTime() > 0 ? startTime + limits.getMoveTime() : Long.MAX_VALUE;
+        nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        ageHistory();
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = PackedMove.NONE;
+            plyKillers[1] = PackedMove.NONE;
+        }
+
+        SearchResult result = new SearchResult(PackedMove.NONE, 0, 0, new int[0], 0, 0);
+        for (int depth = firstDepth; depth <= limits.getDepth(); depth += step) {
+            int score = negamax(position, depth, -INFINITY, INFINITY, 0, true);
+            if (stopped && result.getBestMove() != PackedMove.NONE) {
+                break;
+            }
+            int[] pv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, pv, 0, pv.length);
+            int bestMove = pv.length > 0 ? pv[0] : PackedMove.NONE;
+            result = new SearchResult(bestMove, score, depth, pv, nodes, System.currentTimeMillis() - startTime);
+            if (observer != null) {
+                observer.update(result);
+            }
+            if (stopped || bestMove == PackedMove.NONE) {
+                break;
+            }
+        }
+        if (result.getBestMove() == PackedMove.NONE) {
+            MoveGenerator.generateLegalMoves(position, rootMoves);
+            if (!rootMoves.isEmpty()) {
+                int[] pv = { rootMoves.get(0) };
+                result = new SearchResult(pv[0], 0, 0, pv, nodes, System.currentTimeMillis() - startTime);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * the alpha-beta search, returns the score of the position for the side to
+     * move, scores at or below alpha or at or above beta are bounds only
+     *
+     * the first move is searched with the full window and the rest with a null
+     * window around alpha, searched again in full only if they beat it, the
+     * selective parts switched on in the SearchOptions are applied outside the
+     * principal variation only
+     */
+    private int negamax(Position position, int depth, int alpha, int beta, int ply, boolean allowNull) {
+        boolean inCheck = position.isInCheck(position.getSideToMove());
+        if (inCheck && options.getCheckExtensions() && ply > 0) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(position, alpha, beta, ply);
+        }
+        pvLength[ply] = ply;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        nodes++;
+
+        if (ply > 0 && (position.getHalfmoveClock() >= 100 || position.isRepetition())) {
+            return 0;
+        }
+        if (ply == MAX_PLY - 1) {
+            return Evaluation.evaluate(position, pawnTable);
+        }
+
+        // a cutoff at a principal variation node would cut the line short, the
+        // table only orders its moves
+        boolean pvNode = beta - alpha > 1;
+        long key = position.getZobristKey();
+        long entry = table.probe(key);
+        int tableMove = PackedMove.NONE;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            tableMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean selective = ply > 0 && !pvNode && !inCheck;
+        int staticScore = selective ? Evaluation.evaluate(position, pawnTable) : -INFINITY;
+
+        if (selective && allowNull && options.getNullMove() && depth >= NULL_MOVE_MIN_DEPTH && staticScore >= beta
+                && hasPiecesBesidesPawns(position)) {
+            int reduction = NULL_MOVE_REDUCTION + depth / 6;
+            position.makeNullMove();
+            int score = -negamax(position, depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+            position.unmakeNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE - MAX_PLY ? beta : score;
+            }
+        }
+        boolean futile = selective && options.getFutilityPruning() && depth < FUTILITY_MARGINS.length
+                && Math.abs(alpha) < MATE - MAX_PLY && staticScore + FUTILITY_MARGINS[depth] <= alpha;
+
+        if (ply == 0 && tableMove == PackedMove.NONE) {
+            tableMove = pvTable[0][0];
+        }
+        MovePicker picker = pickers[ply];
+        picker.init(position, tableMove, killers[ply][0], killers[ply][1], history);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        int searched = 0;
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            boolean quiet = !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+            position.makeMove(move);
+            boolean givesCheck = position.isInCheck(position.getSideToMove());
+            if (futile && quiet && !givesCheck && searched > 0) {
+                position.unmakeMove(move);
+                best = Math.max(best, staticScore + FUTILITY_MARGINS[depth]);
+                continue;
+            }
+            searched++;
+            int score;
+            if (searched == 1) {
+                score = -negamax(position, depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                int reduction = 0;
+                if (options.getLateMoveReductions() && depth >= LATE_MOVE_MIN_DEPTH
+                        && searched > LATE_MOVE_FULL_SEARCHES && quiet && !inCheck && !givesCheck) {
+                    reduction = Math.min(REDUCTIONS[Math.min(depth, MAX_DEPTH)][searched], depth - 2);
+                }
+                score = -negamax(position, depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (reduction > 0 && score > alpha && !stopped) {
+                    score = -negamax(position, depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta && !stopped) {
+                    score = -negamax(position, depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            position.unmakeMove(move);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(move, ply);
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            updateQuietCutoff(position, move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (searched == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bound == TranspositionTable.UPPER ? PackedMove.NONE : bestMove,
+                TranspositionTable.toTableScore(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns true if the side to move has a piece other than pawns and its king,
+     * without one passing the turn is often the best move and null move pruning
+     * would be wrong
+     */
+    private static boolean hasPiecesBesidesPawns(Position position) {
+        int side = position.getSideToMove();
+        return (position.getOccupancy(side) & ~position.getPieces(side, Position.PAWN)
+                & ~position.getPieces(side, Position.KING)) != 0;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * searches only captures and promotions below the depth limit until the
+     * position is quiet, the side to move may stand on the static score instead
+     * of capturing, captures that lose material in the exchange are skipped and
+     * when in check every evasion is searched
+     */
+    private int quiesce(Position position, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        nodes++;
+
+        if (position.getHalfmoveClock() >= 100 || position.isRepetition()) {
+            return 0;
+        }
+        if (ply == MAX_PLY - 1) {
+            return Evaluation.evaluate(position, pawnTable);
+        }
+
+        boolean inCheck = position.isInCheck(position.getSideToMove());
+        int best = -INFINITY;
+        MovePicker picker = pickers[ply];
+        if (inCheck) {
+            picker.init(position, PackedMove.NONE, PackedMove.NONE, PackedMove.NONE, history);
+        } else {
+            best = Evaluation.evaluate(position, pawnTable);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            picker.initCaptures(position);
+        }
+
+        int searched = 0;
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            searched++;
+            position.makeMove(move);
+            int score = -quiesce(position, -beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (inCheck && searched == 0) {
+            return -MATE + ply;
+        }
+        return best;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * remembers a quiet move that caused a beta cutoff as a killer of the ply and
+     * raises its history score by the square of the depth
+     */
+    private void updateQuietCutoff(Position position, int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] scores = history[position.getSideToMove()][PackedMove.from(move)];
+        scores[PackedMove.to(move)] += depth * depth;
+        if (scores[PackedMove.to(move)] > MAX_HISTORY) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * halves every history score, done at the start of a search and whenever a
+     * score grows too large so newer cutoffs count more
+     */
+    private void ageHistory() {
+        for (int[][] side : history) {
+            for (int[] from : side) {
+                for (int to = 0; to < 64; to++) {
+                    from[to] /= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * makes the move followed by the line below it the best line at this ply
+     */
+    private void updatePrincipalVariation(int move, int ply) {
+        pvTable[ply][ply] = move;
+        for (int next = ply + 1; next < pvLength[ply + 1]; next++) {
+            pvTable[ply][next] = pvTable[ply + 1][next];
+        }
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * stops the search once the node budget or the deadline is reached, the budget
+     * is shared by every thread of a ParallelSearch
+     */
+    private void checkLimits() {
+        long searched = group == null ? nodes : group.getNodes();
+        if (searched >= nodeLimit || System.currentTimeMillis() >= deadline) {
+            stopped = true;
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        Position position;
+        if (args.length > 1) {
+            String fen = "";
+            for (int i = 1; i < args.length; i++) {
+                fen += args[i] + " ";
+            }
+            position = Fen.toPosition(fen.trim());
+        } else {
+            position = new Position(new Chess());
+        }
+        Search search = new Search();
+        search.register(result -> System.out.println(result));
+        SearchResult result = search.search(position, SearchLimits.depth(depth));
+        System.out.println("table " + search.getTable());
+        System.out.println("pawn table " + search.getPawnTable());
+        System.out.println("bestmove " + PackedMove.toString(result.getBestMove()));
+    }
+
+}
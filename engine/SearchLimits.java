@@ -0,0 +1,71 @@
+package engine;
+
+/**
+ * class that holds when a search has to stop, a limit of 0 means that limit is
+ * not used, the search stops at whichever set limit is reached first
+ *
+ * @author Jackson Shortell
+ */
+public class SearchLimits {
+
+    /**
+     * the deepest iteration to search
+     */
+    private final int depth;
+    /**
+     * the most nodes to search
+     */
+    private final long nodes;
+    /**
+     * the most milliseconds to search for
+     */
+    private final long moveTime;
+
+    public SearchLimits(int depth, long nodes, long moveTime) {
+        this.depth = depth <= 0 || depth > Search.MAX_DEPTH ? Search.MAX_DEPTH : depth;
+        this.nodes = nodes;
+        this.moveTime = moveTime;
+    }
+
+    /**
+     * @param depth passes in the deepest iteration to search
+     * @return returns limits that only stop at a depth
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * @param nodes passes in the node budget
+     * @return returns limits that only stop after a number of nodes
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    /**
+     * @param moveTime passes in the milliseconds to search for
+     * @return returns limits that only stop at a wall clock deadline
+     */
+    public static SearchLimits moveTime(long moveTime) {
+        return new SearchLimits(0, 0, moveTime);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getMoveTime() {
+        return moveTime;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " nodes " + nodes + " movetime " + moveTime;
+    }
+
+}
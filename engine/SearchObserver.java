@@ -0,0 +1,12 @@
+package engine;
+
+/**
+ * interface for an observer that is told about each finished iteration of a
+ * search
+ *
+ * @author Jackson Shortell
+ */
+public interface SearchObserver {
+    public void update(SearchResult result);
+
+}
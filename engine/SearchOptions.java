@@ -0,0 +1,118 @@
+package engine;
+
+/**
+ * class that switches the selective parts of the search on and off one at a
+ * time so the node count and strength each one is worth can be measured, every
+ * technique is on unless it is turned off
+ *
+ * the defaults can be changed with the system properties chess.nullMove,
+ * chess.lateMoveReductions, chess.futilityPruning and chess.checkExtensions
+ *
+ * @author Jackson Shortell
+ */
+public class SearchOptions {
+
+    /**
+     * let the opponent move twice in a row with a reduced search and cut off when
+     * the position still holds beta
+     */
+    private boolean nullMove;
+    /**
+     * search quiet moves late in the move order less deep and only search them
+     * fully again when they raise alpha
+     */
+    private boolean lateMoveReductions;
+    /**
+     * skip quiet moves near the leaves when the static score is too far below
+     * alpha for them to catch up
+     */
+    private boolean futilityPruning;
+    /**
+     * search one ply deeper when the side to move is in check
+     */
+    private boolean checkExtensions;
+
+    public SearchOptions() {
+        this(true, true, true, true);
+    }
+
+    public SearchOptions(boolean nullMove, boolean lateMoveReductions, boolean futilityPruning,
+            boolean checkExtensions) {
+        this.nullMove = nullMove;
+        this.lateMoveReductions = lateMoveReductions;
+        this.futilityPruning = futilityPruning;
+        this.checkExtensions = checkExtensions;
+    }
+
+    /**
+     * copy constructor
+     *
+     * @param template passes in SearchOptions to copy
+     */
+    public SearchOptions(SearchOptions template) {
+        this(template.nullMove, template.lateMoveReductions, template.futilityPruning, template.checkExtensions);
+    }
+
+    /**
+     * @return returns options with every technique on unless its system property
+     *         is set to false
+     */
+    public static SearchOptions fromSystemProperties() {
+        return new SearchOptions(property("chess.nullMove"), property("chess.lateMoveReductions"),
+                property("chess.futilityPruning"), property("chess.checkExtensions"));
+    }
+
+    /**
+     * @return returns options with every technique off, a plain alpha-beta search
+     */
+    public static SearchOptions none() {
+        return new SearchOptions(false, false, false, false);
+    }
+
+    public boolean getNullMove() {
+        return nullMove;
+    }
+
+    public void setNullMove(boolean nullMove) {
+        this.nullMove = nullMove;
+    }
+
+    public boolean getLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    public boolean getFutilityPruning() {
+        return futilityPruning;
+    }
+
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+
+    public boolean getCheckExtensions() {
+        return checkExtensions;
+    }
+
+    public void setCheckExtensions(boolean checkExtensions) {
+        this.checkExtensions = checkExtensions;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * reads a boolean system property that is true when it is not set
+     */
+    private static boolean property(String name) {
+        return Boolean.parseBoolean(System.getProperty(name, "true"));
+    }
+
+    @Override
+    public String toString() {
+        return "nullMove " + nullMove + " lateMoveReductions " + lateMoveReductions + " futilityPruning "
+                + futilityPruning + " checkExtensions " + checkExtensions;
+    }
+
+}
@@ -0,0 +1,105 @@
+package engine;
+
+import bitboard.PackedMove;
+import unit.Move;
+
+/**
+ * class that holds the outcome of a finished search iteration, the best move,
+ * its score, the principal variation and how much work was done
+ *
+ * @author Jackson Shortell
+ */
+public class SearchResult {
+
+    /**
+     * the best move as a packed move
+     */
+    private final int bestMove;
+    /**
+     * the score of the best move in centipawns for the side to move
+     */
+    private final int score;
+    private final int depth;
+    /**
+     * the line of packed moves both sides are expected to play, starting with the
+     * best move
+     */
+    private final int[] principalVariation;
+    private final long nodes;
+    private final long elapsedMillis;
+
+    public SearchResult(int bestMove, int score, int depth, int[] principalVariation, long nodes,
+            long elapsedMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = principalVariation;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return returns the nodes searched per second
+     */
+    public long getNodesPerSecond() {
+        return elapsedMillis == 0 ? nodes * 1000 : nodes * 1000 / elapsedMillis;
+    }
+
+    /**
+     * @return returns true if the score is a forced mate for either side
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * converts the best move into a Move that can be submitted to Chess
+     *
+     * @return returns a Move, null if the search found no move
+     */
+    public Move toMove() {
+        return PackedMove.toMove(bestMove);
+    }
+
+    /**
+     * @return returns the principal variation as moves separated by spaces
+     */
+    public String principalVariationString() {
+        String s = "";
+        for (int move : principalVariation) {
+            s += (s.isEmpty() ? "" : " ") + PackedMove.toString(move);
+        }
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + score + " nodes " + nodes + " time " + elapsedMillis + " nps "
+                + getNodesPerSecond() + " pv " + principalVariationString();
+    }
+
+}
@@ -0,0 +1,107 @@
+package engine;
+
+import java.util.Arrays;
+
+import bitboard.Fen;
+import bitboard.PackedMove;
+import bitboard.Position;
+
+/**
+ * class that measures what each selective search technique is worth, the
+ * positions of SmpBenchmark are searched to the same depth with every technique
+ * on, every technique off and with one technique off at a time
+ *
+ * the node count shows how much of the tree each technique cuts, the best moves
+ * are compared with those of the plain alpha-beta search with every technique
+ * off, which sees everything to the full depth, so a technique that cuts nodes
+ * but changes many moves is paying for its speed with strength
+ *
+ * the positions are searched once with every technique on and once with every
+ * technique off before anything is timed so the JIT has compiled the search,
+ * then every configuration is run several rounds and the median time is
+ * reported, the node counts and moves do not change between rounds
+ *
+ * usage: java engine.SelectivityBenchmark [depth] [hashMegabytes] [rounds]
+ *
+ * @author Jackson Shortell
+ */
+public class SelectivityBenchmark {
+
+    private static final int DEFAULT_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int rounds = args.length > 2 ? Math.max(1, Integer.parseInt(args[2])) : DEFAULT_ROUNDS;
+        TranspositionTable table = new TranspositionTable(megabytes);
+
+        SearchOptions noNullMove = new SearchOptions();
+        noNullMove.setNullMove(false);
+        SearchOptions noReductions = new SearchOptions();
+        noReductions.setLateMoveReductions(false);
+        SearchOptions noFutility = new SearchOptions();
+        noFutility.setFutilityPruning(false);
+        SearchOptions noExtensions = new SearchOptions();
+        noExtensions.setCheckExtensions(false);
+        String[] names = { "none", "all", "all but null move", "all but reductions", "all but futility",
+                "all but extensions" };
+        SearchOptions[] configurations = { SearchOptions.none(), new SearchOptions(), noNullMove, noReductions,
+                noFutility, noExtensions };
+
+        System.out.println("depth " + depth + " positions " + SmpBenchmark.POSITIONS.length + " hash " + megabytes
+                + "MB rounds " + rounds);
+        int[] moves = new int[SmpBenchmark.POSITIONS.length];
+        runSet(new SearchOptions(), table, depth, moves);
+        runSet(SearchOptions.none(), table, depth, moves);
+        System.out.println("options                    time(ms)          nodes  same best move");
+        int[] reference = new int[SmpBenchmark.POSITIONS.length];
+        for (int c = 0; c < configurations.length; c++) {
+            long[] times = new long[rounds];
+            long nodes = 0;
+            for (int round = 0; round < rounds; round++) {
+                long[] run = runSet(configurations[c], table, depth, moves);
+                times[round] = run[0];
+                nodes = run[1];
+            }
+            Arrays.sort(times);
+            long time = times[rounds / 2];
+            if (c == 0) {
+                System.arraycopy(moves, 0, reference, 0, moves.length);
+            }
+            int same = 0;
+            for (int i = 0; i < moves.length; i++) {
+                if (moves[i] == reference[i]) {
+                    same++;
+                }
+            }
+            System.out.println(String.format("%-22s %12d %14d %9d/%d", names[c], time, nodes, same,
+                    SmpBenchmark.POSITIONS.length));
+        }
+        System.out.println("reference moves of the plain search:");
+        for (int i = 0; i < reference.length; i++) {
+            System.out.println("  " + PackedMove.toString(reference[i]) + "  " + SmpBenchmark.POSITIONS[i]);
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * searches every position from an empty table with a fresh Search, writes the
+     * best moves and returns the total time in milliseconds and the total nodes
+     */
+    private static long[] runSet(SearchOptions options, TranspositionTable table, int depth, int[] moves) {
+        Search search = new Search(table);
+        search.setOptions(options);
+        long time = 0;
+        long nodes = 0;
+        for (int i = 0; i < SmpBenchmark.POSITIONS.length; i++) {
+            Position position = Fen.toPosition(SmpBenchmark.POSITIONS[i]);
+            table.clear();
+            SearchResult result = search.search(position, SearchLimits.depth(depth));
+            time += result.getElapsedMillis();
+            nodes += result.getNodes();
+            moves[i] = result.getBestMove();
+        }
+        return new long[] { time, nodes };
+    }
+
+}
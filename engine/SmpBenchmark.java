@@ -0,0 +1,91 @@
+package engine;
+
+import java.util.Arrays;
+
+import bitboard.Fen;
+import bitboard.Position;
+
+/**
+ * class that measures how lazy SMP scales, every position of a fixed set is
+ * searched to the same depth with 1, 2, 4, 8, 16 and 32 threads from an empty
+ * table and the total time to depth is compared with the time of one thread
+ *
+ * the set is searched once with one thread and once with the most threads
+ * before anything is timed so the JIT has compiled the search, then every
+ * thread count is run several rounds and the round with the median time is
+ * reported
+ *
+ * speedups above the number of cores only show the overhead of sharing them,
+ * so counts larger than the cores of the machine are still run but marked
+ *
+ * usage: java engine.SmpBenchmark [depth] [maxThreads] [hashMegabytes] [rounds]
+ *
+ * @author Jackson Shortell
+ */
+public class SmpBenchmark {
+
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16, 32 };
+    private static final int DEFAULT_ROUNDS = 3;
+
+    static final String[] POSITIONS = { Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10" };
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int megabytes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int rounds = args.length > 3 ? Math.max(1, Integer.parseInt(args[3])) : DEFAULT_ROUNDS;
+        int cores = Runtime.getRuntime().availableProcessors();
+        TranspositionTable table = new TranspositionTable(megabytes);
+
+        System.out.println("depth " + depth + " positions " + POSITIONS.length + " hash " + megabytes + "MB cores "
+                + cores + " rounds " + rounds);
+        runSet(new ParallelSearch(1, table), table, depth);
+        runSet(new ParallelSearch(Math.min(maxThreads, THREAD_COUNTS[THREAD_COUNTS.length - 1]), table), table,
+                depth);
+        System.out.println("threads       time(ms)          nodes        nps  speedup");
+        long baseTime = 0;
+        for (int threads : THREAD_COUNTS) {
+            if (threads > maxThreads) {
+                break;
+            }
+            ParallelSearch search = new ParallelSearch(threads, table);
+            long[][] runs = new long[rounds][];
+            for (int round = 0; round < rounds; round++) {
+                runs[round] = runSet(search, table, depth);
+            }
+            Arrays.sort(runs, (a, b) -> Long.compare(a[0], b[0]));
+            long time = runs[rounds / 2][0];
+            long nodes = runs[rounds / 2][1];
+            if (threads == 1) {
+                baseTime = Math.max(1, time);
+            }
+            System.out.println(String.format("%7d %14d %14d %10d %8.2f%s", threads, time, nodes,
+                    time == 0 ? 0 : nodes * 1000 / time, (double) baseTime / Math.max(1, time),
+                    threads > cores ? "  (more threads than cores)" : ""));
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * searches every position from an empty table and returns the total time in
+     * milliseconds and the total nodes
+     */
+    private static long[] runSet(ParallelSearch search, TranspositionTable table, int depth) {
+        long time = 0;
+        long nodes = 0;
+        for (String fen : POSITIONS) {
+            Position position = Fen.toPosition(fen);
+            table.clear();
+            SearchResult result = search.search(position, SearchLimits.depth(depth));
+            time += result.getElapsedMillis();
+            nodes += result.getNodes();
+        }
+        return new long[] { time, nodes };
+    }
+
+}
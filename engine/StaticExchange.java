@@ -0,0 +1,208 @@
+package engine;
+
+import bitboard.Bitboard;
+import bitboard.MoveGenerator;
+import bitboard.PackedMove;
+import bitboard.PieceSquareTables;
+import bitboard.Position;
+import model.Chess;
+import unit.Move;
+
+/**
+ * class that works out the static exchange of a move, the material the mover
+ * wins or loses if both sides keep capturing on the move's square with their
+ * least valuable attacker and each may stop when going on would lose more
+ *
+ * pieces behind a capturing rook, bishop or queen join the exchange once it
+ * leaves the line, nothing is made on the board so this is cheap enough to ask
+ * for every capture in the search or for a single move in the game
+ *
+ * @author Jackson Shortell
+ */
+public final class StaticExchange {
+
+    /**
+     * worth of a King in exchanges, more than everything else so it is only ever
+     * the last piece to capture
+     */
+    private static final int KING_VALUE = 20000;
+
+    /**
+     * values used in exchanges, the middlegame material of PieceSquareTables with
+     * the King worth KING_VALUE
+     */
+    public static final int[] VALUES = PieceSquareTables.MIDDLEGAME_VALUES.clone();
+
+    /**
+     * longest exchange possible, every piece of both sides, the size of the
+     * scratch array evaluate needs
+     */
+    public static final int MAX_EXCHANGE = 32;
+
+    private StaticExchange() {
+    }
+
+    /**
+     * works out the material a move wins for the side that plays it, for a single
+     * move outside the search
+     *
+     * @param position passes in the Position the move is played from
+     * @param move     passes in a packed move of the side to move
+     * @return returns the centipawns gained, negative if the move loses material
+     * @throws IllegalArgumentException if there is no piece on the move's from
+     *                                  square
+     */
+    public static int evaluate(Position position, int move) {
+        return evaluate(position, move, new int[MAX_EXCHANGE]);
+    }
+
+    /**
+     * works out the material a move wins for the side that plays it, nothing is
+     * allocated so the search can ask for every capture
+     *
+     * the move is not checked for legality, only that a piece stands on its from
+     * square, for a move that can not be played the result is the exchange as if
+     * that piece went to the square anyway, so a move from outside the generator
+     * should be checked with MoveGenerator.isLegal first
+     *
+     * @param position passes in the Position the move is played from
+     * @param move     passes in a packed move of the side to move
+     * @param gain     passes in an array of at least MAX_EXCHANGE ints to work
+     *                 the exchange out in
+     * @return returns the centipawns gained, negative if the move loses material
+     * @throws IllegalArgumentException if there is no piece on the move's from
+     *                                  square
+     */
+    public static int evaluate(Position position, int move, int[] gain) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+
+        int moving = position.getPiece(from);
+        if (moving == Position.NONE) {
+            throw new IllegalArgumentException("no piece on " + PackedMove.squareToString(from) + " to move");
+        }
+        int mover = moving % 6;
+        long occupied = position.getOccupied() ^ Bitboard.bit(from);
+        if (flags == PackedMove.EN_PASSANT) {
+            gain[0] = VALUES[Position.PAWN];
+            occupied ^= Bitboard.bit(to ^ 8);
+        } else {
+            gain[0] = position.getPiece(to) == Position.NONE ? 0 : VALUES[position.getPiece(to) % 6];
+        }
+        int onSquare = VALUES[mover];
+        if (PackedMove.isPromotion(move)) {
+            int promoted = PackedMove.promotionType(move);
+            gain[0] += VALUES[promoted] - VALUES[Position.PAWN];
+            onSquare = VALUES[promoted];
+        }
+
+        long attackers = attackersTo(position, to, occupied) & occupied;
+        int side = position.getSideToMove() ^ 1;
+        int depth = 0;
+        while (true) {
+            long ours = attackers & position.getOccupancy(side);
+            if (ours == 0) {
+                break;
+            }
+            int type = Position.PAWN;
+            long piece = ours & position.getPieces(side, type);
+            while (piece == 0) {
+                type++;
+                piece = ours & position.getPieces(side, type);
+            }
+            if (type == Position.KING && (attackers & position.getOccupancy(side ^ 1)) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            occupied ^= Long.lowestOneBit(piece);
+            attackers |= xrays(position, to, occupied);
+            attackers &= occupied;
+            onSquare = VALUES[type];
+            side ^= 1;
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * determines if a move wins at least a given amount in the exchange
+     *
+     * @param position  passes in the Position the move is played from
+     * @param move      passes in a packed move of the side to move
+     * @param threshold passes in the least the move has to gain
+     * @param gain      passes in an array of at least MAX_EXCHANGE ints to work
+     *                  the exchange out in
+     * @return returns true if the exchange gains at least threshold
+     */
+    public static boolean isAtLeast(Position position, int move, int threshold, int[] gain) {
+        return evaluate(position, move, gain) >= threshold;
+    }
+
+    /**
+     * determines if a move of the player whose turn it is leaves material to be
+     * taken, the move is not played and the Position the game keeps in step is
+     * used instead of a copy
+     *
+     * @param chess passes in the game
+     * @param move  passes in a Move with from and to Coordinates, a Pawn reaching
+     *              the last rank is counted as becoming a Queen
+     * @return returns true if the move loses material in the exchange
+     * @throws IllegalArgumentException if the move is not legal for the player
+     *                                  whose turn it is, such as a stale Move
+     *                                  from an earlier position
+     */
+    public static boolean hangsMaterial(Chess chess, Move move) {
+        Position position = chess.getPosition();
+        int[] scratch = new int[MoveGenerator.MAX_MOVES];
+        int packed = PackedMove.fromMove(move, chess.getBoard(), "Queen");
+        if (packed == PackedMove.NONE || !MoveGenerator.isLegal(position, packed, scratch)) {
+            throw new IllegalArgumentException("move " + move + " is not legal in the current position");
+        }
+        return evaluate(position, packed, scratch) < 0;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the pieces of both colors that attack a square with the given
+     * occupancy
+     */
+    private static long attackersTo(Position position, int square, long occupied) {
+        long knights = position.getPieces(Position.WHITE, Position.KNIGHT)
+                | position.getPieces(Position.BLACK, Position.KNIGHT);
+        long kings = position.getPieces(Position.WHITE, Position.KING)
+                | position.getPieces(Position.BLACK, Position.KING);
+        return (Bitboard.PAWN_ATTACKS[Position.BLACK][square] & position.getPieces(Position.WHITE, Position.PAWN))
+                | (Bitboard.PAWN_ATTACKS[Position.WHITE][square] & position.getPieces(Position.BLACK, Position.PAWN))
+                | (Bitboard.KNIGHT_ATTACKS[square] & knights) | (Bitboard.KING_ATTACKS[square] & kings)
+                | xrays(position, square, occupied);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the rooks, bishops and queens of both colors that reach a square
+     * with the given occupancy
+     */
+    private static long xrays(Position position, int square, long occupied) {
+        long queens = position.getPieces(Position.WHITE, Position.QUEEN)
+                | position.getPieces(Position.BLACK, Position.QUEEN);
+        long diagonals = position.getPieces(Position.WHITE, Position.BISHOP)
+                | position.getPieces(Position.BLACK, Position.BISHOP) | queens;
+        long lines = position.getPieces(Position.WHITE, Position.ROOK)
+                | position.getPieces(Position.BLACK, Position.ROOK) | queens;
+        return (Bitboard.bishopAttacks(square, occupied) & diagonals)
+                | (Bitboard.rookAttacks(square, occupied) & lines);
+    }
+
+    /**
+     * puts the King's exchange value in place once when the class is loaded
+     */
+    static {
+        VALUES[Position.KING] = KING_VALUE;
+    }
+
+}
@@ -0,0 +1,312 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * class that caches search results by Zobrist key in a fixed size table shared
+ * by every search thread without locks
+ *
+ * each entry is two longs, the packed data and the key XORed with the data, a
+ * reader only trusts an entry when XORing the two gives back its key, so an
+ * entry torn by two threads writing at once is seen as a miss instead of as
+ * wrong data
+ *
+ * entries are grouped in buckets of 4 that share a cache line, a store replaces
+ * the entry of the same position if there is one, otherwise the entry with the
+ * lowest depth after entries from earlier searches are aged down
+ *
+ * @author Jackson Shortell
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    /**
+     * the score is at least the stored score, the search failed high
+     */
+    public static final int LOWER = 2;
+    /**
+     * the score is at most the stored score, the search failed low
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * returned by probe when the position is not in the table, real data always
+     * has a bound so it is never 0
+     */
+    public static final long NO_ENTRY = 0L;
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int BYTES_PER_ENTRY = 16;
+    /**
+     * the most entries a table holds, 2^29 entries are 2^30 longs, a larger table
+     * would not fit in one Java array
+     */
+    private static final long MAX_ENTRIES = 1L << 29;
+    /**
+     * how much depth one search of age costs an entry when choosing what to
+     * replace
+     */
+    private static final int AGE_WEIGHT = 8;
+
+    /**
+     * the entries, slot i uses longs 2i (key XOR data) and 2i + 1 (data)
+     */
+    private long[] table;
+    private int bucketMask;
+    private int entryCount;
+    /**
+     * counter of searches, stored in each entry so old entries can be aged out
+     */
+    private volatile int generation;
+
+    private final LongAdder probes;
+    private final LongAdder hits;
+    private final LongAdder stores;
+    private final LongAdder collisions;
+
+    /**
+     * @param megabytes passes in the size of the table in megabytes, rounded down
+     *                  to a power of two number of entries
+     */
+    public TranspositionTable(int megabytes) {
+        this.probes = new LongAdder();
+        this.hits = new LongAdder();
+        this.stores = new LongAdder();
+        this.collisions = new LongAdder();
+        resize(megabytes);
+    }
+
+    /**
+     * replaces the table with an empty one of a new size, must not be called while
+     * a search is using the table
+     *
+     * @param megabytes passes in the size of the table in megabytes, sizes above 8
+     *                  GB are cut down to 8 GB
+     */
+    public void resize(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long entries = Long.highestOneBit(Math.min(bytes / BYTES_PER_ENTRY, MAX_ENTRIES));
+        this.entryCount = (int) entries;
+        this.bucketMask = entryCount / BUCKET_SIZE - 1;
+        this.table = new long[entryCount * 2];
+        this.generation = 0;
+        resetCounters();
+    }
+
+    /**
+     * empties the table and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+        resetCounters();
+    }
+
+    /**
+     * starts a new search, entries stored by earlier searches are now preferred for
+     * replacement
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * looks up a position
+     *
+     * @param key passes in the Zobrist key of the position
+     * @return returns the packed data of the entry, NO_ENTRY if it is not stored
+     */
+    public long probe(long key) {
+        probes.increment();
+        long[] entries = table;
+        int slot = (int) (key & bucketMask) * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int index = (slot + i) * 2;
+            long data = entries[index + 1];
+            if (data != NO_ENTRY && (entries[index] ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * stores the result of searching a position
+     *
+     * @param key   passes in the Zobrist key of the position
+     * @param move  passes in the best packed move, 0 if there is none
+     * @param score passes in the score already adjusted with toTableScore
+     * @param depth passes in the depth the position was searched to
+     * @param bound passes in EXACT, LOWER or UPPER
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        stores.increment();
+        long[] entries = table;
+        int current = generation;
+        int slot = (int) (key & bucketMask) * BUCKET_SIZE;
+        int replace = slot;
+        int worst = Integer.MAX_VALUE;
+        boolean overwritesOther = true;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int index = (slot + i) * 2;
+            long data = entries[index + 1];
+            if (data == NO_ENTRY || (entries[index] ^ data) == key) {
+                if (data != NO_ENTRY && move == 0) {
+                    move = move(data);
+                }
+                replace = slot + i;
+                overwritesOther = false;
+                break;
+            }
+            int age = (current - generation(data)) & 0xFF;
+            int value = depth(data) - AGE_WEIGHT * age;
+            if (value < worst) {
+                worst = value;
+                replace = slot + i;
+            }
+        }
+        if (overwritesOther) {
+            collisions.increment();
+        }
+        long data = pack(move, score, depth, bound, current);
+        int index = replace * 2;
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * packs an entry, bits 0-15 move, 16-31 score, 32-39 depth, 40-41 bound and
+     * 42-49 generation
+     */
+    private static long pack(int move, int score, int depth, int bound, int generation) {
+        int clampedDepth = Math.max(0, Math.min(255, depth));
+        return (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) clampedDepth << 32) | ((long) bound << 40)
+                | ((long) generation << 42);
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+
+    /**
+     * converts a search score into one that does not depend on the ply it was
+     * found at, mate scores are stored as distance from this position
+     *
+     * @param score passes in a score relative to the root
+     * @param ply   passes in the ply of the position
+     * @return returns the score to store
+     */
+    public static int toTableScore(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score + ply;
+        } else if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * converts a stored score back into a score relative to the root
+     *
+     * @param score passes in a stored score
+     * @param ply   passes in the ply of the position
+     * @return returns the score relative to the root
+     */
+    public static int fromTableScore(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score - ply;
+        } else if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return returns how many stores overwrote the entry of a different position
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * @return returns the fraction of probes that found their position
+     */
+    public double getHitRate() {
+        long probeCount = getProbes();
+        return probeCount == 0 ? 0.0 : (double) getHits() / probeCount;
+    }
+
+    /**
+     * estimates how full the table is from the first 1000 entries, only entries
+     * from the current search count
+     *
+     * @return returns the fill rate in parts per thousand
+     */
+    public int getFillPerMille() {
+        int sample = Math.min(1000, entryCount);
+        int current = generation;
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * 2 + 1];
+            if (data != NO_ENTRY && generation(data) == current) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    /**
+     * resets the hit, probe, store and collision counters
+     */
+    public void resetCounters() {
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        collisions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "entries " + entryCount + " probes " + getProbes() + " hits " + getHits() + " hit rate "
+                + String.format("%.3f", getHitRate()) + " stores " + getStores() + " collisions "
+                + getCollisions() + " fill " + getFillPerMille() + "/1000";
+    }
+
+}
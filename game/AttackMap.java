@@ -0,0 +1,159 @@
+package game;
+
+import bitboard.Bitboard;
+import unit.Team;
+
+/**
+ * class that records which squares each Team attacks, the Board stores the
+ * attacks of the Piece on each square as Pieces are placed, removed and moved,
+ * and the per Team attacker counts and attacked bitboards are updated in place
+ * from the old and new attacks of each changed square, so a move only pays for
+ * the squares it touches and every read is a lookup
+ *
+ * @author Jackson Shortell
+ */
+public class AttackMap {
+
+    /**
+     * the squares the Piece on each square attacks, 0 for empty squares
+     */
+    private final long[] pieceAttacks;
+    /**
+     * bitboards of the squares holding Pieces of each Team, indexed by Team
+     * ordinal
+     */
+    private final long[] owners;
+    /**
+     * bitboards of attacked squares indexed by Team ordinal
+     */
+    private final long[] attacked;
+    /**
+     * number of attackers of each square, index is Team ordinal * 64 + square
+     */
+    private final byte[] counts;
+
+    public AttackMap() {
+        this.pieceAttacks = new long[64];
+        this.owners = new long[2];
+        this.attacked = new long[2];
+        this.counts = new byte[128];
+    }
+
+    /**
+     * copy constructor
+     *
+     * @param template passes in an AttackMap to copy
+     */
+    public AttackMap(AttackMap template) {
+        this.pieceAttacks = template.pieceAttacks.clone();
+        this.owners = template.owners.clone();
+        this.attacked = template.attacked.clone();
+        this.counts = template.counts.clone();
+    }
+
+    /**
+     * records the attacks of the Piece standing on a square
+     *
+     * @param square  passes in the 0-63 square of the Piece
+     * @param team    passes in the Team of the Piece
+     * @param attacks passes in the bitboard of squares it attacks
+     */
+    public void set(int square, Team team, long attacks) {
+        clear(square);
+        int side = team.ordinal();
+        owners[side] |= 1L << square;
+        pieceAttacks[square] = attacks;
+        int base = side * 64;
+        for (; attacks != 0; attacks &= attacks - 1) {
+            int target = Long.numberOfTrailingZeros(attacks);
+            if (counts[base + target]++ == 0) {
+                attacked[side] |= 1L << target;
+            }
+        }
+    }
+
+    /**
+     * forgets the attacks of the Piece that stood on a square
+     *
+     * @param square passes in the 0-63 square
+     */
+    public void clear(int square) {
+        long bit = 1L << square;
+        int side = (owners[0] & bit) != 0 ? 0 : (owners[1] & bit) != 0 ? 1 : -1;
+        if (side < 0) {
+            return;
+        }
+        owners[side] &= ~bit;
+        int base = side * 64;
+        for (long attacks = pieceAttacks[square]; attacks != 0; attacks &= attacks - 1) {
+            int target = Long.numberOfTrailingZeros(attacks);
+            if (--counts[base + target] == 0) {
+                attacked[side] &= ~(1L << target);
+            }
+        }
+        pieceAttacks[square] = 0L;
+    }
+
+    /**
+     * @param square passes in a 0-63 square index
+     * @return returns the squares the Piece on the square attacks
+     */
+    public long getPieceAttacks(int square) {
+        return pieceAttacks[square];
+    }
+
+    /**
+     * @param square passes in a 0-63 square index
+     * @param team   passes in the attacking Team
+     * @return returns true if any Piece of the Team attacks the square
+     */
+    public boolean isAttacked(int square, Team team) {
+        return (getAttacked(team) & (1L << square)) != 0;
+    }
+
+    /**
+     * @param team passes in a Team
+     * @return returns a bitboard of every square the Team attacks
+     */
+    public long getAttacked(Team team) {
+        return attacked[team.ordinal()];
+    }
+
+    /**
+     * @param square passes in a 0-63 square index
+     * @param team   passes in the attacking Team
+     * @return returns how many Pieces of the Team attack the square
+     */
+    public int getCount(int square, Team team) {
+        return counts[team.ordinal() * 64 + square];
+    }
+
+    /**
+     * counts the squares next to a King that a Team attacks, a king safety term
+     *
+     * @param kingSquare passes in the square of the King
+     * @param attacker   passes in the Team attacking the King
+     * @return returns the number of attacked squares around the King
+     */
+    public int countAttackedNear(int kingSquare, Team attacker) {
+        return Long.bitCount(getAttacked(attacker) & Bitboard.KING_ATTACKS[kingSquare]);
+    }
+
+    /**
+     * adds up every attack on the squares next to a King, a square attacked twice
+     * counts twice
+     *
+     * @param kingSquare passes in the square of the King
+     * @param attacker   passes in the Team attacking the King
+     * @return returns the number of attacks around the King
+     */
+    public int countAttacksNear(int kingSquare, Team attacker) {
+        int base = attacker.ordinal() * 64;
+        int total = 0;
+        for (int square : Bitboard.KING_TARGETS[kingSquare]) {
+            total += counts[base + square];
+        }
+        return total;
+    }
+
+}
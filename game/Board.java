@@ -1,9 +1,17 @@
 package game;
 
+import bitboard.Bitboard;
+import pieces.Bishop;
+import pieces.King;
+import pieces.Knight;
+import pieces.Pawn;
 import pieces.Piece;
+import pieces.Queen;
+import pieces.Rook;
 import unit.Coordinate;
 import unit.Move;
 import unit.Square;
+import unit.Team;
 
 /**
  * class that represents the board in chess
@@ -13,13 +21,52 @@ import unit.Square;
 public class Board {
 
     public static final int SIZE = 8;
+
+    /**
+     * castling right bits read from the Unmoved flags of the Kings and Rooks
+     */
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    /**
+     * when true every refresh of the Zobrist key is checked against a key built
+     * from scratch, turned on with -Dchess.zobrist.debug=true
+     */
+    private static boolean zobristDebug = Boolean.getBoolean("chess.zobrist.debug");
+
     private Square[][] squareTwoDArray;
     private Move lastMove;
+    /**
+     * XOR of the Zobrist numbers of every Piece on its Square, updated whenever a
+     * Piece is placed, removed or moved through the Board
+     */
+    private long pieceKey;
+    /**
+     * XOR of the Zobrist numbers for the side to move, castling rights and en
+     * passant file, refreshed by updateStateKey after each move
+     */
+    private long stateKey;
+    /**
+     * bitboards of the squares occupied by each Team indexed by Team ordinal, kept
+     * up to date by every method that places, removes or moves a Piece
+     */
+    private long[] occupancy;
+    /**
+     * the attacks of the Piece on each square and the squares each Team attacks,
+     * kept up to date by every method that places, removes or moves a Piece
+     */
+    private AttackMap attackMap;
 
     public Board() {
         this.squareTwoDArray = new Square[SIZE][SIZE];
         makeBoard();
         this.lastMove = new Move(null, null);
+        this.pieceKey = 0L;
+        this.stateKey = 0L;
+        this.occupancy = new long[2];
+        this.attackMap = new AttackMap();
     }
 
     /**
@@ -37,6 +84,10 @@ public class Board {
             }
         }
         this.lastMove = new Move(template.getLastMove());
+        this.pieceKey = template.pieceKey;
+        this.stateKey = template.stateKey;
+        this.occupancy = template.occupancy.clone();
+        this.attackMap = new AttackMap(template.attackMap);
     }
 
     /**
@@ -74,6 +125,41 @@ public class Board {
         this.lastMove = move;
     }
 
+    public static void setZobristDebug(boolean debug) {
+        zobristDebug = debug;
+    }
+
+    /**
+     * @return returns the 64-bit Zobrist key of the position, equal positions with
+     *         the same side to move, castling rights and en passant chance have
+     *         equal keys
+     */
+    public long getZobristKey() {
+        return pieceKey ^ stateKey;
+    }
+
+    /**
+     * @return returns a bitboard of every occupied square
+     */
+    public long getOccupied() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    /**
+     * @param team passes in a Team
+     * @return returns a bitboard of the squares occupied by the Team's Pieces
+     */
+    public long getOccupancy(Team team) {
+        return occupancy[team.ordinal()];
+    }
+
+    /**
+     * @return returns the squares each Team attacks, always up to date
+     */
+    public AttackMap getAttackMap() {
+        return attackMap;
+    }
+
     /**
      * given a coordinate retrieves the square at the corresponding file and rank
      * 
@@ -87,7 +173,19 @@ public class Board {
     }
 
     /**
-     * moves a Piece from one Coordinate to another
+     * retrieves the square at a 0-63 index, rank * 8 + file
+     * 
+     * @param square passes in the index of the square
+     * @return returns a Square object
+     */
+    public Square getSquare(int square) {
+        return squareTwoDArray[square >>> 3][square & 7];
+    }
+
+    /**
+     * moves a Piece from one Coordinate to another, only the attacks of the Piece,
+     * anything it captures and the sliding Pieces whose lines cross either square
+     * are refreshed in the attack map
      * 
      * @param from passes in the Coordinate the Piece is currently at
      * @param to   passes in the Coordinate the piece is traveling to
@@ -96,14 +194,250 @@ public class Board {
     public Piece movePiece(Coordinate from, Coordinate to) {
         Piece piece = getSquare(from).getPiece();
         if (piece != null) {
-            Square position = getSquare(from);
-            Square destination = getSquare(to);
-            piece.setPosition(to);
-            return destination.setPiece(position.removePiece());
+            long changed = (1L << squareIndex(from)) | (1L << squareIndex(to));
+            long detached = detachAttacks(changed);
+            Piece captured = relocate(piece, from, to);
+            attachAttacks(detached | changed);
+            return captured;
+        }
+        return null;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * moves a Piece and its Zobrist numbers and occupancy bits, returns the Piece
+     * it captured
+     */
+    private Piece relocate(Piece piece, Coordinate from, Coordinate to) {
+        Square position = getSquare(from);
+        Square destination = getSquare(to);
+        piece.setPosition(to);
+        long[] numbers = Zobrist.PIECE_SQUARE[Zobrist.pieceIndex(piece)];
+        pieceKey ^= numbers[squareIndex(from)] ^ numbers[squareIndex(to)];
+        occupancy[piece.getTeam().ordinal()] ^= (1L << squareIndex(from)) | (1L << squareIndex(to));
+        Piece captured = destination.setPiece(position.removePiece());
+        if (captured != null) {
+            pieceKey ^= Zobrist.PIECE_SQUARE[Zobrist.pieceIndex(captured)][squareIndex(to)];
+            occupancy[captured.getTeam().ordinal()] ^= 1L << squareIndex(to);
+        }
+        return captured;
+    }
+
+    /**
+     * places a Piece on the Square at a Coordinate and keeps the Zobrist key and
+     * attack map up to date, the Piece's position is not changed so it should
+     * already be the Coordinate
+     * 
+     * @param coordinate passes in a Coordinate
+     * @param piece      passes in the Piece to place, may be null
+     * @return returns the Piece that was previously on the Square
+     */
+    public Piece setPiece(Coordinate coordinate, Piece piece) {
+        int square = squareIndex(coordinate);
+        if (piece == null && getSquare(coordinate).isEmpty()) {
+            return null;
+        }
+        long detached = detachAttacks(1L << square);
+        Piece previous = getSquare(coordinate).setPiece(piece);
+        if (previous != null) {
+            pieceKey ^= Zobrist.PIECE_SQUARE[Zobrist.pieceIndex(previous)][square];
+            occupancy[previous.getTeam().ordinal()] ^= 1L << square;
+        }
+        if (piece != null) {
+            pieceKey ^= Zobrist.PIECE_SQUARE[Zobrist.pieceIndex(piece)][square];
+            occupancy[piece.getTeam().ordinal()] ^= 1L << square;
+        }
+        attachAttacks(detached | (1L << square));
+        return previous;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * takes out of the attack map the attacks of every Piece on a changing square
+     * and of every Rook, Bishop or Queen whose line reaches one, their attacks are
+     * the only ones the change can alter, returns the squares of those Pieces
+     */
+    private long detachAttacks(long changed) {
+        long occupied = getOccupied();
+        long candidates = changed & occupied;
+        for (long lines = changed; lines != 0; lines &= lines - 1) {
+            candidates |= Bitboard.queenAttacks(Long.numberOfTrailingZeros(lines), occupied) & occupied;
+        }
+        long detached = 0L;
+        for (; candidates != 0; candidates &= candidates - 1) {
+            int square = Long.numberOfTrailingZeros(candidates);
+            long bit = 1L << square;
+            Piece piece = getSquare(square).getPiece();
+            boolean slider = piece instanceof Rook || piece instanceof Bishop || piece instanceof Queen;
+            if ((changed & bit) != 0 || (slider && (attackMap.getPieceAttacks(square) & changed) != 0)) {
+                attackMap.clear(square);
+                detached |= bit;
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * adds to the attack map the attacks of the Pieces now standing on a set of
+     * squares, empty squares are skipped
+     */
+    private void attachAttacks(long squares) {
+        for (squares &= getOccupied(); squares != 0; squares &= squares - 1) {
+            int square = Long.numberOfTrailingZeros(squares);
+            Piece piece = getSquare(square).getPiece();
+            attackMap.set(square, piece.getTeam(), piece.attacks(this));
+        }
+    }
+
+    /**
+     * removes the Piece on the Square at a Coordinate and keeps the Zobrist key up
+     * to date
+     * 
+     * @param coordinate passes in a Coordinate
+     * @return returns the Piece that was on the Square
+     */
+    public Piece removePiece(Coordinate coordinate) {
+        return setPiece(coordinate, null);
+    }
+
+    /**
+     * rebuilds the side to move, castling and en passant part of the Zobrist key,
+     * called after every move once the Unmoved flags and last move are final, in
+     * debug mode the whole key is checked against one built from scratch
+     * 
+     * @param sideToMove passes in the Team whose turn it is
+     */
+    public void updateStateKey(Team sideToMove) {
+        this.stateKey = computeStateKey(sideToMove);
+        if (zobristDebug) {
+            long expected = computeZobristKey(sideToMove);
+            if (expected != getZobristKey()) {
+                throw new IllegalStateException("incremental Zobrist key " + Long.toHexString(getZobristKey())
+                        + " does not match recomputed key " + Long.toHexString(expected) + "\n" + this);
+            }
+        }
+    }
+
+    /**
+     * builds the Zobrist key of the position from scratch by walking every Square
+     * 
+     * @param sideToMove passes in the Team whose turn it is
+     * @return returns the 64-bit key
+     */
+    public long computeZobristKey(Team sideToMove) {
+        long key = computeStateKey(sideToMove);
+        for (int rank = 0; rank < SIZE; rank++) {
+            for (int file = 0; file < SIZE; file++) {
+                Piece piece = squareTwoDArray[rank][file].getPiece();
+                if (piece != null) {
+                    key ^= Zobrist.PIECE_SQUARE[Zobrist.pieceIndex(piece)][rank * SIZE + file];
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * builds the side to move, castling and en passant part of the key
+     */
+    private long computeStateKey(Team sideToMove) {
+        long key = sideToMove == Team.BLACK ? Zobrist.BLACK_TO_MOVE : 0L;
+        key ^= Zobrist.CASTLING[getCastlingRights()];
+        Coordinate target = getEnPassantTarget();
+        if (target != null && canCaptureEnPassant(target, sideToMove)) {
+            key ^= Zobrist.EN_PASSANT_FILE[target.getFileIndex()];
+        }
+        return key;
+    }
+
+    /**
+     * reads the castling rights from the Unmoved flags, a side keeps a right while
+     * its King and the Rook on that corner have both never moved
+     * 
+     * @return returns the rights as WHITE_KING_SIDE, WHITE_QUEEN_SIDE,
+     *         BLACK_KING_SIDE and BLACK_QUEEN_SIDE bits
+     */
+    public int getCastlingRights() {
+        return castlingRightsOf(Team.WHITE, 0, WHITE_KING_SIDE, WHITE_QUEEN_SIDE)
+                | castlingRightsOf(Team.BLACK, SIZE - 1, BLACK_KING_SIDE, BLACK_QUEEN_SIDE);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * reads the castling rights of one Team from its home rank
+     */
+    private int castlingRightsOf(Team team, int rank, int kingSide, int queenSide) {
+        Piece king = squareTwoDArray[rank][4].getPiece();
+        if (!(king instanceof King) || king.getTeam() != team || !((King) king).getUnmoved()) {
+            return 0;
+        }
+        int rights = 0;
+        if (isUnmovedRook(squareTwoDArray[rank][7].getPiece(), team)) {
+            rights |= kingSide;
+        }
+        if (isUnmovedRook(squareTwoDArray[rank][0].getPiece(), team)) {
+            rights |= queenSide;
+        }
+        return rights;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * checks if a Piece is an unmoved Rook of a Team
+     */
+    private static boolean isUnmovedRook(Piece piece, Team team) {
+        return piece instanceof Rook && piece.getTeam() == team && ((Rook) piece).getUnmoved();
+    }
+
+    /**
+     * if the last move was a Pawn moving two squares gets the square it skipped
+     * over, which is where an en passant capture would land
+     * 
+     * @return returns a Coordinate, null if the last move was not a two square
+     *         Pawn move
+     */
+    public Coordinate getEnPassantTarget() {
+        if (lastMove == null || !lastMove.isFromAndToNotNull()) {
+            return null;
+        }
+        Coordinate from = lastMove.getFrom();
+        Coordinate to = lastMove.getTo();
+        if (from.getFileIndex() == to.getFileIndex() && Math.abs(from.getRankIndex() - to.getRankIndex()) == 2
+                && getSquare(to).getPiece() instanceof Pawn) {
+            return Coordinate.getCoordinate(to.getFileIndex(), (from.getRankIndex() + to.getRankIndex()) / 2);
         }
         return null;
     }
 
+    /**
+     * HELPER FUNCTION
+     * checks if a Pawn of the side to move stands beside the Pawn that just moved
+     * two squares and so could capture it en passant
+     */
+    private boolean canCaptureEnPassant(Coordinate target, Team sideToMove) {
+        int rank = lastMove.getTo().getRankIndex();
+        int file = target.getFileIndex();
+        for (int side = -1; side <= 1; side += 2) {
+            if (file + side >= 0 && file + side < SIZE) {
+                Piece piece = squareTwoDArray[rank][file + side].getPiece();
+                if (piece instanceof Pawn && piece.getTeam() == sideToMove) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * gets the 0-63 index of a Coordinate, rank * 8 + file
+     */
+    private static int squareIndex(Coordinate coordinate) {
+        return coordinate.getRankIndex() * SIZE + coordinate.getFileIndex();
+    }
+
     /**
      * executes a given move using the from and to coordinate
      * @param move passes in a Move object
@@ -113,6 +447,74 @@ public class Board {
         return movePiece(move.getFrom(), move.getTo());
     }
 
+    /**
+     * determines if a square is attacked by any Piece of a team, read from the
+     * attack map
+     * 
+     * @param coordinate passes in the Coordinate of the square to check
+     * @param byTeam     passes in the attacking Team
+     * @return returns true if the square is attacked and false otherwise
+     */
+    public boolean isSquareAttacked(Coordinate coordinate, Team byTeam) {
+        return attackMap.isAttacked(coordinate.getId(), byTeam);
+    }
+
+    /**
+     * determines if a square is attacked by any Piece of a team while treating
+     * one square as empty, used for King moves so the King does not block an
+     * attack along the line it is moving on
+     * 
+     * @param coordinate passes in the Coordinate of the square to check
+     * @param byTeam     passes in the attacking Team
+     * @param ignore     passes in the Coordinate of a square to treat as empty,
+     *                   may be null
+     * @return returns true if the square is attacked and false otherwise
+     */
+    public boolean isSquareAttacked(Coordinate coordinate, Team byTeam, Coordinate ignore) {
+        return isSquareAttacked(coordinate.getId(), byTeam, ignore == null ? -1 : ignore.getId());
+    }
+
+    /**
+     * determines if a square is attacked by any Piece of a team while treating
+     * one square as empty, each kind of attacker is found with one table lookup
+     * from the square so only squares that could hold an attacker are inspected
+     * 
+     * @param square passes in the 0-63 index of the square to check
+     * @param byTeam passes in the attacking Team
+     * @param ignore passes in the 0-63 index of a square to treat as empty, -1
+     *               for none
+     * @return returns true if the square is attacked and false otherwise
+     */
+    public boolean isSquareAttacked(int square, Team byTeam, int ignore) {
+        long occupied = getOccupied();
+        if (ignore >= 0) {
+            occupied &= ~(1L << ignore);
+        }
+        long attackers = getOccupancy(byTeam) & occupied;
+
+        return containsPiece(Bitboard.rookAttacks(square, occupied) & attackers, Rook.class, Queen.class)
+                || containsPiece(Bitboard.bishopAttacks(square, occupied) & attackers, Bishop.class, Queen.class)
+                || containsPiece(Bitboard.KNIGHT_ATTACKS[square] & attackers, Knight.class, Knight.class)
+                || containsPiece(Bitboard.PAWN_ATTACKS[byTeam.opposite().ordinal()][square] & attackers,
+                        Pawn.class, Pawn.class)
+                || containsPiece(Bitboard.KING_ATTACKS[square] & attackers, King.class, King.class);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * checks if any square of a bitboard holds a Piece of either of two types
+     */
+    private boolean containsPiece(long squares, Class<? extends Piece> type, Class<? extends Piece> otherType) {
+        while (squares != 0) {
+            Piece piece = getSquare(Long.numberOfTrailingZeros(squares)).getPiece();
+            if (type.isInstance(piece) || otherType.isInstance(piece)) {
+                return true;
+            }
+            squares &= squares - 1;
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         String s = "";
@@ -0,0 +1,172 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import pieces.Piece;
+
+/**
+ * class that holds a Player's Pieces in fixed size arrays, one run of slots per
+ * type, with a square to slot index so adding, removing and moving a Piece is
+ * O(1) and never allocates, Pieces are visited Queens first down to Pawns and in
+ * slot order within a type so every scan of the list is in the same order
+ *
+ * @author Jackson Shortell
+ */
+public class PieceList implements Iterable<Piece> {
+
+    /**
+     * the most Pieces of one type a Player can have, 8 Pawns or 2 of a Piece plus
+     * 8 promotions
+     */
+    public static final int CAPACITY = 10;
+    private static final int TYPES = 6;
+    private static final int EMPTY = -1;
+
+    /**
+     * the Pieces, the Pieces of type t are in slots t * CAPACITY up to
+     * t * CAPACITY + counts[t]
+     */
+    private final Piece[] pieces;
+    private final int[] counts;
+    /**
+     * the slot of the Piece on each square or EMPTY
+     */
+    private final int[] index;
+    private int size;
+
+    public PieceList() {
+        this.pieces = new Piece[TYPES * CAPACITY];
+        this.counts = new int[TYPES];
+        this.index = new int[64];
+        Arrays.fill(index, EMPTY);
+        this.size = 0;
+    }
+
+    /**
+     * adds a Piece at its current position
+     *
+     * @param piece passes in a Piece to add
+     */
+    public void add(Piece piece) {
+        int type = Zobrist.pieceIndex(piece) % TYPES;
+        if (counts[type] == CAPACITY) {
+            throw new IllegalStateException("too many " + piece.getName() + "s in a piece list");
+        }
+        int slot = type * CAPACITY + counts[type]++;
+        pieces[slot] = piece;
+        index[piece.getPosition().getId()] = slot;
+        size++;
+    }
+
+    /**
+     * removes a Piece, the last Piece of its type takes its slot
+     *
+     * @param piece passes in a Piece to remove, its position must be the square
+     *              it was added or last moved to
+     * @return returns true if the Piece was in the list
+     */
+    public boolean remove(Piece piece) {
+        int square = piece.getPosition().getId();
+        int slot = index[square];
+        if (slot == EMPTY || pieces[slot] != piece) {
+            return false;
+        }
+        int type = slot / CAPACITY;
+        int last = type * CAPACITY + --counts[type];
+        Piece moved = pieces[last];
+        pieces[slot] = moved;
+        pieces[last] = null;
+        index[moved.getPosition().getId()] = slot;
+        index[square] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * updates the square index after the Piece on one square moved to another,
+     * does nothing if the list holds no Piece on the from square
+     *
+     * @param from passes in the 0-63 square the Piece left
+     * @param to   passes in the 0-63 square the Piece arrived on
+     */
+    public void move(int from, int to) {
+        int slot = index[from];
+        if (slot != EMPTY) {
+            index[from] = EMPTY;
+            index[to] = slot;
+        }
+    }
+
+    /**
+     * @param square passes in a 0-63 square index
+     * @return returns the Piece in the list on the square or null
+     */
+    public Piece getPiece(int square) {
+        int slot = index[square];
+        return slot == EMPTY ? null : pieces[slot];
+    }
+
+    /**
+     * @param type passes in a type code, Pawn 0 up to King 5
+     * @return returns how many Pieces of that type are in the list
+     */
+    public int count(int type) {
+        return counts[type];
+    }
+
+    /**
+     * @param type passes in a type code, Pawn 0 up to King 5
+     * @param i    passes in an index below count(type)
+     * @return returns the i-th Piece of that type
+     */
+    public Piece get(int type, int i) {
+        return pieces[type * CAPACITY + i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * copies the Pieces into a new array in iteration order, used when the list
+     * changes while it is being walked
+     *
+     * @return returns the array
+     */
+    public Piece[] toArray() {
+        Piece[] array = new Piece[size];
+        int i = 0;
+        for (Piece piece : this) {
+            array[i++] = piece;
+        }
+        return array;
+    }
+
+    @Override
+    public Iterator<Piece> iterator() {
+        return new Iterator<Piece>() {
+            private int type = TYPES - 1;
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (type >= 0 && i >= counts[type]) {
+                    type--;
+                    i = 0;
+                }
+                return type >= 0;
+            }
+
+            @Override
+            public Piece next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pieces[type * CAPACITY + i++];
+            }
+        };
+    }
+
+}
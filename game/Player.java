@@ -1,7 +1,5 @@
 package game;
 
-import java.util.TreeSet;
-
 import pieces.Bishop;
 import pieces.King;
 import pieces.Knight;
@@ -33,16 +31,29 @@ public class Player {
      * a list of the Pieces the Player starts out with 1 Queen, 2 Rooks, 2 Knights,
      * 2 Bishops, 8 Pawns
      */
-    private TreeSet<Piece> playersPieces;
+    private PieceList playersPieces;
 
     public Player(Team color) {
         this.color = color;
         Rank rank = color == Team.WHITE ? Rank.ONE : Rank.EIGHT;
         this.king = new King(Coordinate.getCoordinate(File.E, rank), color);
-        playersPieces = new TreeSet<>();
+        playersPieces = new PieceList();
         setPiecesInPlay();
     }
 
+    /**
+     * creates a Player with only a King, used to set up a position that is not
+     * the starting one, the rest of the Pieces are added with addPlayersPiece
+     * 
+     * @param color passes in the Team of the Player
+     * @param king  passes in the Player's King
+     */
+    public Player(Team color, King king) {
+        this.color = color;
+        this.king = king;
+        this.playersPieces = new PieceList();
+    }
+
     /**
      * copy constructor
      * 
@@ -51,9 +62,9 @@ public class Player {
     public Player(Player template) {
         this.color = template.getColor();
         this.king = new King(template.getKing());
-        this.playersPieces = new TreeSet<>();
+        this.playersPieces = new PieceList();
 
-        TreeSet<Piece> original = template.getPlayersPieces();
+        PieceList original = template.getPlayersPieces();
         for (Piece piece : original) {
             playersPieces.add(Piece.copyPiece(piece));
         }
@@ -63,7 +74,7 @@ public class Player {
         return color;
     }
 
-    public TreeSet<Piece> getPlayersPieces() {
+    public PieceList getPlayersPieces() {
         return playersPieces;
     }
 
@@ -0,0 +1,90 @@
+package game;
+
+import java.util.SplittableRandom;
+
+import pieces.Bishop;
+import pieces.King;
+import pieces.Knight;
+import pieces.Pawn;
+import pieces.Piece;
+import pieces.Queen;
+import unit.Team;
+
+/**
+ * class that holds the random numbers used to build 64-bit Zobrist keys, a key
+ * is the XOR of one number per piece on its square, one for the side to move,
+ * one for the castling rights and one for a capturable en passant file, so a
+ * move updates the key with a few XORs instead of walking the board
+ *
+ * @author Jackson Shortell
+ */
+public final class Zobrist {
+
+    /**
+     * seed for the random numbers so keys are the same in every run
+     */
+    private static final long SEED = 0x5EED_C0DE_2022L;
+
+    /**
+     * numbers for each piece on each square indexed by [color * 6 + type][square]
+     * with types ordered pawn, knight, bishop, rook, queen, king
+     */
+    public static final long[][] PIECE_SQUARE = new long[12][64];
+    /**
+     * number XORed in when black is to move
+     */
+    public static final long BLACK_TO_MOVE;
+    /**
+     * numbers for each of the 16 combinations of castling rights
+     */
+    public static final long[] CASTLING = new long[16];
+    /**
+     * numbers for the file of an en passant square that can be captured on
+     */
+    public static final long[] EN_PASSANT_FILE = new long[8];
+
+    private Zobrist() {
+    }
+
+    /**
+     * gets the index of a Piece in the PIECE_SQUARE table
+     *
+     * @param piece passes in a Piece
+     * @return returns color * 6 + type
+     */
+    public static int pieceIndex(Piece piece) {
+        int color = piece.getTeam() == Team.WHITE ? 0 : 6;
+        if (piece instanceof Pawn) {
+            return color;
+        } else if (piece instanceof Knight) {
+            return color + 1;
+        } else if (piece instanceof Bishop) {
+            return color + 2;
+        } else if (piece instanceof Queen) {
+            return color + 4;
+        } else if (piece instanceof King) {
+            return color + 5;
+        }
+        return color + 3;
+    }
+
+    /**
+     * fills the tables once when the class is loaded
+     */
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_SQUARE[piece][square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        for (int rights = 1; rights < 16; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+    }
+
+}
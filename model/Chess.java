@@ -1,7 +1,9 @@
 package model;
 
-import java.util.TreeSet;
-
+import bitboard.MoveGenerator;
+import bitboard.MoveList;
+import bitboard.PackedMove;
+import bitboard.Position;
 import game.Board;
 import game.Player;
 import pieces.Bishop;
@@ -33,6 +35,30 @@ public class Chess {
     private Team turn;
     private Pawn toBePromoted;
     private ChessObserver observer;
+    /**
+     * moves since the last capture or Pawn move, for the fifty move rule
+     */
+    private int halfmoveClock;
+    /**
+     * number of the current move, starts at 1 and goes up after each Black move
+     */
+    private int fullmoveNumber;
+    /**
+     * the game as a Position, kept in step by makeMove and unmakeMove so legality
+     * queries neither read the Board again nor allocate, null until it is first
+     * needed and after a change it can not follow such as a Pawn waiting in
+     * toBePromoted
+     */
+    private Position position;
+    /**
+     * goes up each time the Position is dropped, an UndoEntry only takes its move
+     * back on the Position if it was played on the one still in use
+     */
+    private int positionEpoch;
+    /**
+     * reused buffer the legal moves of the Position are generated into
+     */
+    private final int[] legalMoves;
 
     public Chess() {
         this.board = new Board();
@@ -41,7 +67,60 @@ public class Chess {
         this.move = new Move(null, null);
         this.turn = Team.WHITE;
         this.toBePromoted = null;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.legalMoves = new int[MoveGenerator.MAX_MOVES];
         placePieces();
+        board.updateStateKey(turn);
+    }
+
+    /**
+     * builds the object model of a Position, castling rights become the Unmoved
+     * flags of the King and Rooks, the en passant square becomes the Board's last
+     * move and Pawns on their starting rank are left Unmoved
+     * 
+     * @param position passes in a Position such as one read with Fen.toPosition
+     */
+    public Chess(Position position) {
+        this.board = new Board();
+        this.whitePlayer = new Player(Team.WHITE, findKing(position, Team.WHITE));
+        this.blackPlayer = new Player(Team.BLACK, findKing(position, Team.BLACK));
+        this.move = new Move(null, null);
+        this.turn = position.getSideToMove() == Position.WHITE ? Team.WHITE : Team.BLACK;
+        this.toBePromoted = null;
+        this.halfmoveClock = position.getHalfmoveClock();
+        this.fullmoveNumber = position.getFullmoveNumber();
+        this.legalMoves = new int[MoveGenerator.MAX_MOVES];
+
+        int rights = position.getCastlingRights();
+        for (int square = 0; square < 64; square++) {
+            int code = position.getPiece(square);
+            if (code == Position.NONE || code % 6 == Position.KING) {
+                continue;
+            }
+            Team team = code < 6 ? Team.WHITE : Team.BLACK;
+            Piece piece = createPiece(code % 6, Coordinate.getCoordinate(square), team);
+            if (piece instanceof Pawn && square / 8 != (team == Team.WHITE ? 1 : 6)) {
+                ((Pawn) piece).setUnmovedFalse();
+            } else if (piece instanceof Rook && !hasCastlingRook(rights, square, team)) {
+                ((Rook) piece).setUnmovedFalse();
+            }
+            getPlayer(team).addPlayersPiece(piece);
+        }
+        setKingUnmoved(whitePlayer.getKing(), rights & (Board.WHITE_KING_SIDE | Board.WHITE_QUEEN_SIDE), 4);
+        setKingUnmoved(blackPlayer.getKing(), rights & (Board.BLACK_KING_SIDE | Board.BLACK_QUEEN_SIDE), 60);
+        placePieces();
+
+        int target = position.getEnPassant();
+        if (target != Position.NONE) {
+            int forward = turn == Team.WHITE ? 8 : -8;
+            Coordinate from = Coordinate.getCoordinate(target + forward);
+            Coordinate to = Coordinate.getCoordinate(target - forward);
+            if (board.getSquare(to).getPiece() instanceof Pawn) {
+                board.setLastMove(from, to);
+            }
+        }
+        board.updateStateKey(turn);
     }
 
     /**
@@ -61,6 +140,9 @@ public class Chess {
         } else {
             this.toBePromoted = null;
         }
+        this.halfmoveClock = template.getHalfmoveClock();
+        this.fullmoveNumber = template.getFullmoveNumber();
+        this.legalMoves = new int[MoveGenerator.MAX_MOVES];
     }
 
     public Board getBoard() {
@@ -83,6 +165,35 @@ public class Chess {
         return turn;
     }
 
+    /**
+     * @return returns the 64-bit Zobrist key of the current position
+     */
+    public long getZobristKey() {
+        return board.getZobristKey();
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * returns the game as a Position without copying it, the Position is kept in
+     * step with the game by makeMove and unmakeMove, callers may make and unmake
+     * moves on it but must leave it as they found it
+     * 
+     * @return returns the Position of the game
+     */
+    public Position getPosition() {
+        if (position == null) {
+            position = new Position(this);
+        }
+        return position;
+    }
+
     public Pawn getToBePromoted() {
         return toBePromoted;
     }
@@ -125,16 +236,11 @@ public class Chess {
      */
     public boolean playMove() {
         if (move.isFromAndToNotNull()) {
-            Piece movingPiece = board.getSquare(move.getFrom()).getPiece();
-            Player mover = turn == Team.WHITE ? whitePlayer : blackPlayer;
-            Player enemy = turn == Team.WHITE ? blackPlayer : whitePlayer;
-            Piece captured = preCheckEvaluation(movingPiece, mover, enemy);
-            boolean isMoverInCheck = checkEvaluation(mover);
-            if (isMoverInCheck) {
-                revertMove(enemy, captured);
+            if (!isLegalMove(move.getFrom(), move.getTo())) {
+                setMoveNull();
                 return false;
             }
-            postCheckEvaluation(movingPiece);
+            makeMove(move.getFrom(), move.getTo(), null);
             notifyObserver();
             return true;
         }
@@ -142,62 +248,271 @@ public class Chess {
     }
 
     /**
-     * evaluates things that need to happen before check is evaluated such ass extra
-     * pawn conditions and captures
+     * evaluates if the king is now in check after the move has been made by asking
+     * the board if the king's square is attacked, only the lines through that
+     * square are looked at
      * 
-     * @param movingPiece passes in the moving Piece object
-     * @param mover       passes in which player object is moving that Piece
-     * @param enemy       passes in the enemy player object
-     * @return returns the captured Piece
+     * @param mover passes in the player object that is making the move
+     * @return returns true if the king is in check and false otherwise
      */
-    public Piece preCheckEvaluation(Piece movingPiece, Player mover, Player enemy) {
-        if (movingPiece instanceof Pawn) {
-            Pawn pawn = (Pawn) movingPiece;
-            extraPawnConditions(pawn, move.getTo());
-        }
+    public boolean checkEvaluation(Player mover) {
+        King king = mover.getKing();
+        king.updateInCheck(board);
+        return king.getInCheck();
+    }
 
-        Piece captured = board.movePiece(move);
+    /**
+     * executes a move on the board without checking if it is legal and records
+     * everything needed to take it back, handles captures, en passant, castling,
+     * the Unmoved flags and promotion, the turn passes to the other player
+     * 
+     * @param from      passes in the Coordinate of the Piece moving
+     * @param to        passes in the Coordinate the Piece is moving to
+     * @param promotion passes in the name of the Piece a Pawn reaching the last
+     *                  rank becomes ie "Queen", or null to leave the Pawn waiting
+     *                  in toBePromoted the way playMove does
+     * @return returns an UndoEntry to pass to unmakeMove
+     */
+    public UndoEntry makeMove(Coordinate from, Coordinate to, String promotion) {
+        int packed = position == null ? PackedMove.NONE
+                : PackedMove.fromMove(from.getId(), to.getId(), board, promotion);
+        return makeMove(from, to, promotion, packed);
+    }
 
+    /**
+     * HELPER FUNCTION
+     * makes the move on the Board and, when the packed move is given, on the
+     * Position as well
+     */
+    private UndoEntry makeMove(Coordinate from, Coordinate to, String promotion, int packed) {
+        Piece movingPiece = board.getSquare(from).getPiece();
+        Team moverTeam = movingPiece.getTeam();
+        Player mover = getPlayer(moverTeam);
+        Player enemy = getPlayer(moverTeam.opposite());
+        boolean wasUnmoved = movingPiece instanceof Unmoved && ((Unmoved) movingPiece).getUnmoved();
+        Move played = new Move(from, to);
+        UndoEntry undo = new UndoEntry(played, movingPiece, wasUnmoved, board.getLastMove(), toBePromoted, turn,
+                halfmoveClock);
+
+        Coordinate capturedAt = to;
+        if (movingPiece instanceof Pawn && isEnPassantMove((Pawn) movingPiece, to)) {
+            capturedAt = Coordinate.getCoordinate(to.getFile(), from.getRank());
+        }
+        Piece captured = board.removePiece(capturedAt);
         if (captured != null) {
             enemy.removePlayersPiece(captured);
+            undo.setCaptured(captured, capturedAt);
+        }
+
+        Rank promotionRank = moverTeam == Team.WHITE ? Rank.EIGHT : Rank.ONE;
+        boolean isPromotion = movingPiece instanceof Pawn && to.getRank() == promotionRank;
+        if (isPromotion && promotion != null) {
+            mover.removePlayersPiece(movingPiece);
         }
 
-        return captured;
+        relocatePiece(from, to);
+
+        if (movingPiece instanceof King && isCastleMove(played)) {
+            Coordinate rookFrom = to.getFile() == File.C ? Coordinate.getCoordinate(File.A, to.getRank())
+                    : Coordinate.getCoordinate(File.H, to.getRank());
+            undo.setCastledRook((Rook) board.getSquare(rookFrom).getPiece(), rookFrom);
+            castleRook(to);
+            undo.getCastledRook().setUnmovedFalse();
+        }
+
+        if (movingPiece instanceof Unmoved) {
+            ((Unmoved) movingPiece).setUnmovedFalse();
+        }
+
+        if (isPromotion) {
+            if (promotion != null) {
+                Piece promoted = createPromotedPiece(promotion, to, moverTeam);
+                addPromotedPieceToPlayerAndSquare(promoted, to, mover);
+                undo.setPromotedTo(promoted);
+            } else {
+                setToBePromoted((Pawn) movingPiece);
+            }
+        }
+
+        board.setLastMove(played);
+        halfmoveClock = movingPiece instanceof Pawn || captured != null ? 0 : halfmoveClock + 1;
+        if (moverTeam == Team.BLACK) {
+            fullmoveNumber++;
+        }
+        turn = moverTeam.opposite();
+        board.updateStateKey(turn);
+
+        if (position != null) {
+            if (packed == PackedMove.NONE || (isPromotion && promotion == null)
+                    || position.getPly() == Position.MAX_PLY) {
+                dropPosition();
+            } else {
+                position.makeMove(packed);
+                undo.setPositionMove(packed, positionEpoch);
+            }
+        }
+        return undo;
     }
 
     /**
-     * evaluates if the king is now in check after the move has been made
+     * takes back a move made with makeMove, moves must be taken back in the
+     * reverse order they were made
      * 
-     * @param mover passes in the player object that is making the move
-     * @return returns true if the king is in check and false otherwise
+     * @param undo passes in the UndoEntry makeMove returned
      */
-    public boolean checkEvaluation(Player mover) {
-        clearSquaresDefendedBy();
-        updateAllSquaresDefendedBy();
-        King king = mover.getKing();
-        king.updateInCheck(board);
-        return king.getInCheck();
+    public void unmakeMove(UndoEntry undo) {
+        Coordinate from = undo.getMove().getFrom();
+        Coordinate to = undo.getMove().getTo();
+        Piece movedPiece = undo.getMoved();
+        Player mover = getPlayer(movedPiece.getTeam());
+
+        Piece promoted = undo.getPromotedTo();
+        if (promoted != null) {
+            mover.removePlayersPiece(promoted);
+            board.setPiece(to, movedPiece);
+        }
+
+        relocatePiece(to, from);
+
+        if (promoted != null) {
+            mover.addPlayersPiece(movedPiece);
+        }
+
+        Rook rook = undo.getCastledRook();
+        if (rook != null) {
+            relocatePiece(rook.getPosition(), undo.getCastledRookFrom());
+            rook.setUnmoved(true);
+        }
+
+        if (movedPiece instanceof Unmoved) {
+            ((Unmoved) movedPiece).setUnmoved(undo.getMovedWasUnmoved());
+        }
+
+        Piece captured = undo.getCaptured();
+        if (captured != null) {
+            board.setPiece(undo.getCapturedAt(), captured);
+            getPlayer(captured.getTeam()).addPlayersPiece(captured);
+        }
+
+        board.setLastMove(undo.getPreviousLastMove());
+        toBePromoted = undo.getPreviousToBePromoted();
+        turn = undo.getPreviousTurn();
+        halfmoveClock = undo.getPreviousHalfmoveClock();
+        if (turn == Team.BLACK) {
+            fullmoveNumber--;
+        }
+        board.updateStateKey(turn);
+
+        if (position != null) {
+            if (undo.getPositionMove() != PackedMove.NONE && undo.getPositionEpoch() == positionEpoch) {
+                position.unmakeMove(undo.getPositionMove());
+            } else {
+                dropPosition();
+            }
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * forgets the Position after a change it did not follow, it is read from the
+     * Board again the next time it is needed
+     */
+    private void dropPosition() {
+        position = null;
+        positionEpoch++;
+    }
+
+    /**
+     * plays a packed move with makeMove, a promotion becomes the piece the move
+     * names
+     * 
+     * @param move passes in a packed move
+     * @return returns an UndoEntry to pass to unmakeMove
+     */
+    public UndoEntry makeMove(int move) {
+        return makeMove(Coordinate.getCoordinate(PackedMove.from(move)), Coordinate.getCoordinate(PackedMove.to(move)),
+                PackedMove.promotionName(move), move);
+    }
+
+    /**
+     * fills a MoveList with every legal move of the player whose turn it is, the
+     * pin and check aware generator works on the Position the game keeps in step
+     * so nothing is copied, made or taken back
+     * 
+     * @param list passes in the MoveList to fill, it is cleared first
+     */
+    public void generateLegalMoves(MoveList list) {
+        MoveGenerator.generateLegalMoves(getPosition(), list);
     }
 
     /**
-     * evaluates things that need to come after the check evaluation such as if the
-     * last move made was a castle and executes it or if the piece moved implements
-     * unmoved and needs its unmoved status set to false
+     * determines if moving a piece from one coordinate to another is legal
      * 
-     * @param movingPiece passes in the moving piece
+     * @param from passes in the Coordinate of the Piece moving
+     * @param to   passes in the Coordinate the Piece is moving to
+     * @return returns true if the move is legal and false otherwise
      */
-    public void postCheckEvaluation(Piece movingPiece) {
-        if (movingPiece.getName().equals("King") && isCastleMove(move)) {
-            castleRook(move.getTo());
+    public boolean isLegalMove(Coordinate from, Coordinate to) {
+        Piece piece = board.getSquare(from).getPiece();
+        if (piece == null) {
+            return false;
         }
+        return (legalTargets(piece.getTeam(), from) & (1L << to.getId())) != 0;
+    }
 
-        if (movingPiece instanceof Unmoved) {
-            Unmoved unmoved = (Unmoved) movingPiece;
-            unmoved.setUnmovedFalse();
+    /**
+     * determines if a player has at least one legal move
+     * 
+     * @param player passes in a Player object to check
+     * @return returns true if the player has a legal move and false otherwise
+     */
+    public boolean hasLegalMove(Player player) {
+        return generateLegalMoves(player.getColor()) > 0;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns a bitboard of the squares the Piece on a Coordinate can legally move
+     * to
+     */
+    private long legalTargets(Team team, Coordinate from) {
+        int count = generateLegalMoves(team);
+        long targets = 0L;
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.from(legalMoves[i]) == from.getId()) {
+                targets |= 1L << PackedMove.to(legalMoves[i]);
+            }
         }
+        return targets;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * generates the legal moves of a Team into legalMoves, when it is not that
+     * Team's turn the side to move is switched on the Position for the query and
+     * there is no en passant capture for it
+     */
+    private int generateLegalMoves(Team team) {
+        Position current = getPosition();
+        if (team == turn) {
+            return MoveGenerator.generateLegalMoves(current, legalMoves);
+        }
+        int side = current.getSideToMove();
+        int enPassant = current.getEnPassant();
+        current.setSideToMove(side ^ 1);
+        current.setEnPassant(Position.NONE);
+        int count = MoveGenerator.generateLegalMoves(current, legalMoves);
+        current.setEnPassant(enPassant);
+        current.setSideToMove(side);
+        return count;
+    }
 
-        board.setLastMove(move);
-        turn = turn.opposite();
+    /**
+     * HELPER FUNCTION
+     * returns the Player of a given Team
+     */
+    private Player getPlayer(Team team) {
+        return team == Team.WHITE ? whitePlayer : blackPlayer;
     }
 
     /**
@@ -241,62 +556,14 @@ public class Chess {
      */
     public boolean isToCoordinate(Coordinate coordinate) {
         if (!move.isFromNull()) {
-            Square square = board.getSquare(move.getFrom());
-            Piece piece = square.getPiece();
-            if (piece.allValidMoves(board).contains(coordinate)) {
+            Team team = board.getSquare(move.getFrom()).getPieceColor();
+            if ((legalTargets(team, move.getFrom()) & (1L << coordinate.getId())) != 0) {
                 return true;
             }
         }
         return false;
     }
 
-    /**
-     * clears all squares defended by sets in the 2-D array of the board
-     */
-    public void clearSquaresDefendedBy() {
-        for (int rank = 0; rank < 8; rank++) {
-            for (int file = 0; file < 8; file++) {
-                Square square = board.getSquare(Coordinate.getCoordinate(file, rank));
-                square.clearDefendBy();
-            }
-        }
-    }
-
-    /**
-     * given a player and the players information about the locations of its pieces,
-     * calculates which squares are defended and updates each one
-     * 
-     * @param player passes in a Player object
-     */
-    public void updatePlayersDefendedSquares(Player player) {
-        Team color = player.getColor();
-        King king = player.getKing();
-        TreeSet<Coordinate> defended = king.allValidDefendedSquares(board);
-
-        for (Coordinate coordinate : defended) {
-            Square square = board.getSquare(coordinate);
-            square.addDefendedBy(color);
-        }
-
-        TreeSet<Piece> pieces = player.getPlayersPieces();
-        for (Piece piece : pieces) {
-            defended = piece.allValidDefendedSquares(board);
-            for (Coordinate coordinate : defended) {
-                Square square = board.getSquare(coordinate);
-                square.addDefendedBy(color);
-            }
-        }
-    }
-
-    /**
-     * calls updatePlayersDefendedSquares with the white and the black player to
-     * update the whole board
-     */
-    public void updateAllSquaresDefendedBy() {
-        updatePlayersDefendedSquares(whitePlayer);
-        updatePlayersDefendedSquares(blackPlayer);
-    }
-
     /**
      * calculates given a move if the displacement of the files is that seen in a
      * castling move called only when the king moves as it can not move more then 1
@@ -328,6 +595,16 @@ public class Chess {
         Coordinate to = file == File.C ? Coordinate.getCoordinate(File.D, rank)
                 : Coordinate.getCoordinate(File.F, rank);
 
+        relocatePiece(from, to);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * moves a Piece on the board and in its Player's piece list square index
+     */
+    private void relocatePiece(Coordinate from, Coordinate to) {
+        Piece piece = board.getSquare(from).getPiece();
+        getPlayer(piece.getTeam()).getPlayersPieces().move(from.getId(), to.getId());
         board.movePiece(from, to);
     }
 
@@ -341,7 +618,7 @@ public class Chess {
      */
     public boolean isEnPassantMove(Pawn pawn, Coordinate to) {
         Square square = board.getSquare(to);
-        if (pawn.allValidDefendedSquares(board).contains(to) && square.isEmpty()) {
+        if ((pawn.attacks(board) & (1L << to.getId())) != 0 && square.isEmpty()) {
             return true;
         }
         return false;
@@ -349,14 +626,14 @@ public class Chess {
 
     /**
      * given a piece (the piece a pawn was promoted into) sets the piece to place on
-     * its square and the players tree set to update
+     * its square and the players piece list to update
      * 
-     * @param piece
-     * @param square
-     * @param player
+     * @param piece      passes in the promoted piece
+     * @param coordinate passes in the coordinate of the square to place it on
+     * @param player     passes in the player who promoted
      */
-    private void addPromotedPieceToPlayerAndSquare(Piece piece, Square square, Player player) {
-        square.setPiece(piece);
+    private void addPromotedPieceToPlayerAndSquare(Piece piece, Coordinate coordinate, Player player) {
+        board.setPiece(coordinate, piece);
         player.addPlayersPiece(piece);
     }
 
@@ -368,83 +645,91 @@ public class Chess {
      * @return returns true if the input was valid and false otherwise
      */
     public boolean promotePawn(String pieceName) {
-        Player player = turn == Team.WHITE ? whitePlayer : blackPlayer;
+        Team team = toBePromoted.getTeam();
         Coordinate position = toBePromoted.getPosition();
+        Piece promoted = createPromotedPiece(pieceName, position, team);
+        if (promoted == null) {
+            return false;
+        }
+        Player player = getPlayer(team);
         player.removePlayersPiece(toBePromoted);
-        Square square = board.getSquare(toBePromoted.getPosition());
-        square.removePiece();
+        board.removePiece(position);
+        addPromotedPieceToPlayerAndSquare(promoted, position, player);
+        toBePromoted = null;
+        board.updateStateKey(turn);
+        dropPosition();
+        return true;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * given the name of a piece creates that piece, returns null for names that
+     * are not a valid promotion
+     */
+    private Piece createPromotedPiece(String pieceName, Coordinate position, Team team) {
         switch (pieceName) {
             case "Queen":
-                Queen queen = new Queen(position, turn);
-                addPromotedPieceToPlayerAndSquare(queen, square, player);
-                return true;
+                return new Queen(position, team);
             case "Rook":
-                Rook rook = new Rook(position, turn);
-                addPromotedPieceToPlayerAndSquare(rook, square, player);
-                return true;
+                return new Rook(position, team);
             case "Bishop":
-                Bishop bishop = new Bishop(position, turn);
-                addPromotedPieceToPlayerAndSquare(bishop, square, player);
-                return true;
+                return new Bishop(position, team);
             case "Knight":
-                Knight knight = new Knight(position, turn);
-                addPromotedPieceToPlayerAndSquare(knight, square, player);
-                return true;
+                return new Knight(position, team);
         }
-        return false;
+        return null;
     }
 
     /**
-     * given a to coordinate executes the en passant move and captures the piece
-     * directly behind the pawns destination
-     * 
-     * @param to passes in a coordinate object
+     * HELPER FUNCTION
+     * creates a Piece other than a King from a Position piece type
      */
-    private void captureEnPassant(Coordinate to) {
-        File file = to.getFile();
-        Rank rank = turn == Team.WHITE ? Rank.FIVE : Rank.FOUR;
-        Square square = board.getSquare(Coordinate.getCoordinate(file, rank));
-        Player enemy = turn == Team.WHITE ? blackPlayer : whitePlayer;
-        enemy.removePlayersPiece(square.removePiece());
+    private static Piece createPiece(int type, Coordinate position, Team team) {
+        switch (type) {
+            case Position.PAWN:
+                return new Pawn(position, team);
+            case Position.KNIGHT:
+                return new Knight(position, team);
+            case Position.BISHOP:
+                return new Bishop(position, team);
+            case Position.ROOK:
+                return new Rook(position, team);
+            default:
+                return new Queen(position, team);
+        }
     }
 
     /**
-     * determines if the pawn need to be promoted or capture a piece en passant
-     * 
-     * @param pawn passes in a pawn to check
-     * @param to   passes in a destination coordinate to check
+     * HELPER FUNCTION
+     * creates the King of a Team from the square it has in a Position
      */
-    private void extraPawnConditions(Pawn pawn, Coordinate to) {
-        if (isEnPassantMove(pawn, to)) {
-            captureEnPassant(to);
-        }
-        Rank promotionRank = pawn.getTeam() == Team.WHITE ? Rank.EIGHT : Rank.ONE;
-        if (to.getRank() == promotionRank) {
-            setToBePromoted(pawn);
-        }
+    private static King findKing(Position position, Team team) {
+        int color = team == Team.WHITE ? Position.WHITE : Position.BLACK;
+        long king = position.getPieces(color, Position.KING);
+        return new King(Coordinate.getCoordinate(Long.numberOfTrailingZeros(king)), team);
     }
 
     /**
-     * reverts a move just made on the board in cases where an illegal move was
-     * played
-     * 
-     * @param enemy    passes in the enemy player
-     * @param captured and the captured piece that may need to be returned if not
-     *                 null
-     */
-    private void revertMove(Player enemy, Piece captured) {
-        Coordinate from = move.getFrom();
-        Coordinate to = move.getTo();
-        board.movePiece(to, from);
-        board.getSquare(to).setPiece(captured);
-        if (captured != null) {
-            enemy.addPlayersPiece(captured);
+     * HELPER FUNCTION
+     * checks if a Rook on a square is the corner Rook of a castling right the Team
+     * still has
+     */
+    private static boolean hasCastlingRook(int rights, int square, Team team) {
+        if (team == Team.WHITE) {
+            return (square == 7 && (rights & Board.WHITE_KING_SIDE) != 0)
+                    || (square == 0 && (rights & Board.WHITE_QUEEN_SIDE) != 0);
         }
-        this.move.setFrom(null);
-        this.move.setTo(null);
-        toBePromoted = null;
-        clearSquaresDefendedBy();
-        updateAllSquaresDefendedBy();
+        return (square == 63 && (rights & Board.BLACK_KING_SIDE) != 0)
+                || (square == 56 && (rights & Board.BLACK_QUEEN_SIDE) != 0);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * a King keeps its Unmoved flag only if it is on its starting square and its
+     * side still has a castling right
+     */
+    private static void setKingUnmoved(King king, int rights, int home) {
+        king.setUnmoved(rights != 0 && king.getPosition().getId() == home);
     }
 
     /**
@@ -455,26 +740,16 @@ public class Chess {
      * @return returns true if the player is in stale mate and false otherwise
      */
     public boolean isPlayerInStalemate(Player player) {
-        TreeSet<Piece> playersPieces = player.getPlayersPieces();
         King king = player.getKing();
         king.updateInCheck(board);
-        if (!king.getInCheck() && king.allValidMoves(board).size() == 0) {
-            for (Piece piece : playersPieces) {
-                TreeSet<Coordinate> moves = piece.allValidMoves(board);
-                if (moves.size() > 0) {
-                    return false;
-                }
-
-            }
-            return true;
-        }
-        return false;
+        return !king.getInCheck() && !hasLegalMove(player);
     }
 
     /**
      * determines if a given player is in checkmate by validating that their king is
      * in check and they have no moves to move out of check, block the check, or
-     * capture the piece that is checking the king using a back tracker and playing all possible moves in the position
+     * capture the piece that is checking the king, the legal moves are generated
+     * on the Position the game keeps in step so nothing is made or copied
      * 
      * @param player passes in a player to check
      * @return returns true if player is in checkmate and false otherwise
@@ -482,26 +757,7 @@ public class Chess {
     public boolean isPlayerInCheckmate(Player player) {
         King king = player.getKing();
         king.updateInCheck(board);
-        if (king.getInCheck() && king.allValidMoves(board).size() == 0) {
-            TreeSet<Piece> pieces = player.getPlayersPieces();
-            for (Piece piece : pieces) {
-                TreeSet<Coordinate> moves = piece.allValidMoves(board);
-                Coordinate from = piece.getPosition();
-                for (Coordinate to : moves) {
-                    Chess copy = new Chess(this);
-                    submitCoordinate(from);
-                    submitCoordinate(to);
-                    boolean valid = copy.playMove();
-                    if (valid == true) {
-                        return false;
-                    }
-                }
-
-            }
-            return true;
-        }
-        return false;
-
+        return king.getInCheck() && !hasLegalMove(player);
     }
 
     /**
@@ -526,13 +782,10 @@ public class Chess {
      */
     private void placePlayersPieces(Player player) {
         King king = player.getKing();
-        Square kingSquare = board.getSquare(king.getPosition());
-        kingSquare.setPiece(king);
+        board.setPiece(king.getPosition(), king);
 
-        TreeSet<Piece> playersPieces = player.getPlayersPieces();
-        for (Piece piece : playersPieces) {
-            Square square = board.getSquare(piece.getPosition());
-            square.setPiece(piece);
+        for (Piece piece : player.getPlayersPieces()) {
+            board.setPiece(piece.getPosition(), piece);
         }
     }
 
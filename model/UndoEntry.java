@@ -0,0 +1,186 @@
+package model;
+
+import bitboard.PackedMove;
+import pieces.Pawn;
+import pieces.Piece;
+import pieces.Rook;
+import unit.Coordinate;
+import unit.Move;
+import unit.Team;
+
+/**
+ * class that records everything Chess.makeMove changes that can not be worked
+ * out from the move alone so Chess.unmakeMove can put the position back
+ *
+ * @author Jackson Shortell
+ */
+public class UndoEntry {
+
+    /**
+     * the from and to Coordinates of the move that was made
+     */
+    private final Move move;
+    /**
+     * the Piece that moved, for a promotion this is the Pawn
+     */
+    private final Piece moved;
+    /**
+     * the Unmoved flag of the moving Piece before the move, false for pieces that
+     * do not implement Unmoved
+     */
+    private final boolean movedWasUnmoved;
+    /**
+     * the Board's last move before this move, it holds the en passant state
+     */
+    private final Move previousLastMove;
+    /**
+     * the Pawn waiting to be promoted before this move
+     */
+    private final Pawn previousToBePromoted;
+    private final Team previousTurn;
+    /**
+     * the halfmove clock before the move, the fullmove number follows from the
+     * previous turn
+     */
+    private final int previousHalfmoveClock;
+
+    /**
+     * the Piece that was captured, null if nothing was captured
+     */
+    private Piece captured;
+    /**
+     * the Coordinate the captured Piece stood on, differs from the move's to
+     * Coordinate for en passant
+     */
+    private Coordinate capturedAt;
+    /**
+     * the Rook that moved along with the King when castling, null otherwise
+     */
+    private Rook castledRook;
+    private Coordinate castledRookFrom;
+    /**
+     * the Piece the Pawn was promoted into during the move, null otherwise
+     */
+    private Piece promotedTo;
+    /**
+     * the packed move played on the Position Chess keeps in step with the Board,
+     * PackedMove.NONE if the move was not played on it
+     */
+    private int positionMove;
+    /**
+     * the epoch of that Position when the move was played on it
+     */
+    private int positionEpoch;
+
+    public UndoEntry(Move move, Piece moved, boolean movedWasUnmoved, Move previousLastMove,
+            Pawn previousToBePromoted, Team previousTurn, int previousHalfmoveClock) {
+        this.move = move;
+        this.moved = moved;
+        this.movedWasUnmoved = movedWasUnmoved;
+        this.previousLastMove = previousLastMove;
+        this.previousToBePromoted = previousToBePromoted;
+        this.previousTurn = previousTurn;
+        this.previousHalfmoveClock = previousHalfmoveClock;
+        this.captured = null;
+        this.capturedAt = null;
+        this.castledRook = null;
+        this.castledRookFrom = null;
+        this.promotedTo = null;
+        this.positionMove = PackedMove.NONE;
+        this.positionEpoch = 0;
+    }
+
+    public Move getMove() {
+        return move;
+    }
+
+    public Piece getMoved() {
+        return moved;
+    }
+
+    public boolean getMovedWasUnmoved() {
+        return movedWasUnmoved;
+    }
+
+    public Move getPreviousLastMove() {
+        return previousLastMove;
+    }
+
+    public Pawn getPreviousToBePromoted() {
+        return previousToBePromoted;
+    }
+
+    public Team getPreviousTurn() {
+        return previousTurn;
+    }
+
+    public int getPreviousHalfmoveClock() {
+        return previousHalfmoveClock;
+    }
+
+    public Piece getCaptured() {
+        return captured;
+    }
+
+    public Coordinate getCapturedAt() {
+        return capturedAt;
+    }
+
+    public Rook getCastledRook() {
+        return castledRook;
+    }
+
+    public Coordinate getCastledRookFrom() {
+        return castledRookFrom;
+    }
+
+    public Piece getPromotedTo() {
+        return promotedTo;
+    }
+
+    /**
+     * records the captured Piece and where it stood
+     *
+     * @param captured   passes in the captured Piece
+     * @param capturedAt passes in the Coordinate it was captured on
+     */
+    public void setCaptured(Piece captured, Coordinate capturedAt) {
+        this.captured = captured;
+        this.capturedAt = capturedAt;
+    }
+
+    /**
+     * records the Rook moved by castling and where it came from
+     *
+     * @param castledRook passes in the Rook
+     * @param from        passes in the Coordinate the Rook started on
+     */
+    public void setCastledRook(Rook castledRook, Coordinate from) {
+        this.castledRook = castledRook;
+        this.castledRookFrom = from;
+    }
+
+    public void setPromotedTo(Piece promotedTo) {
+        this.promotedTo = promotedTo;
+    }
+
+    public int getPositionMove() {
+        return positionMove;
+    }
+
+    public int getPositionEpoch() {
+        return positionEpoch;
+    }
+
+    /**
+     * records the move played on the Position Chess keeps in step with the Board
+     *
+     * @param move  passes in the packed move
+     * @param epoch passes in the epoch of the Position
+     */
+    public void setPositionMove(int move, int epoch) {
+        this.positionMove = move;
+        this.positionEpoch = epoch;
+    }
+
+}
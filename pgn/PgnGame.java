@@ -0,0 +1,127 @@
+package pgn;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import bitboard.Fen;
+import bitboard.PackedMove;
+import bitboard.Position;
+import model.Chess;
+import unit.Coordinate;
+
+/**
+ * class that holds one game read from a PGN file, its tags in the order they
+ * were read, the moves of its main line as packed moves and the result
+ *
+ * a game whose movetext has a move that is not legal or can not be read keeps
+ * the moves before it and says what went wrong in its error
+ *
+ * @author Jackson Shortell
+ */
+public class PgnGame {
+
+    private final Map<String, String> tags;
+    private final int[] moves;
+    /**
+     * the result token that ended the movetext, "*" if there was none
+     */
+    private final String result;
+    /**
+     * why the movetext could not be replayed, null if every move was legal
+     */
+    private final String error;
+
+    public PgnGame(Map<String, String> tags, int[] moves, String result, String error) {
+        this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        this.moves = moves;
+        this.result = result;
+        this.error = error;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @param name passes in a tag name such as "White"
+     * @return returns the value of the tag, null if the game does not have it
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return returns true if every move of the main line was read and legal
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * @return returns the FEN the game starts from, the FEN tag if the game has
+     *         one and the starting position otherwise
+     */
+    public String getStartFen() {
+        String fen = tags.get("FEN");
+        return fen == null ? Fen.START_POSITION : fen;
+    }
+
+    /**
+     * replays the game on a Position, like PgnReader the Position is copied every
+     * MAX_PLY / 2 plies so a game longer than the undo stack can be replayed
+     *
+     * @return returns the Position after the last move that was read
+     */
+    public Position toPosition() {
+        Position position = Fen.toPosition(getStartFen());
+        for (int move : moves) {
+            position.makeMove(move);
+            if (position.getPly() == Position.MAX_PLY / 2) {
+                // the moves are never unmade, a copy frees their undo slots
+                position = new Position(position);
+            }
+        }
+        return new Position(position);
+    }
+
+    /**
+     * replays the game through the object model, every move is checked with
+     * Chess.isLegalMove before it is made, the check generates the legal moves on
+     * the Position the game keeps in step so no Position is copied per ply
+     *
+     * @return returns a Chess after the last move that was read
+     * @throws IllegalStateException if the object model rejects a move
+     */
+    public Chess toChess() {
+        Chess chess = Fen.toChess(getStartFen());
+        for (int move : moves) {
+            Coordinate from = Coordinate.getCoordinate(PackedMove.from(move));
+            Coordinate to = Coordinate.getCoordinate(PackedMove.to(move));
+            if (!chess.isLegalMove(from, to)) {
+                throw new IllegalStateException("move " + PackedMove.toString(move) + " rejected by the model");
+            }
+            chess.makeMove(move);
+        }
+        return chess;
+    }
+
+    @Override
+    public String toString() {
+        return tags.getOrDefault("White", "?") + " - " + tags.getOrDefault("Black", "?") + " " + result + " "
+                + moves.length + " plies" + (error == null ? "" : " error: " + error);
+    }
+
+}
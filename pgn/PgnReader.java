@@ -0,0 +1,546 @@
+package pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import bitboard.Fen;
+import bitboard.MoveGenerator;
+import bitboard.PackedMove;
+import bitboard.Position;
+import bitboard.San;
+
+/**
+ * class that reads games from PGN one at a time, the input is read through a
+ * fixed size buffer so memory stays the same however large the file is, and
+ * each game is only parsed when it is asked for
+ *
+ * tags are kept, the main line is replayed move by move against the legal moves
+ * of a Position so every game that comes out valid can be played, comments,
+ * NAGs, annotations such as "!?" written on their own, variations and escape
+ * lines are skipped
+ *
+ * a large file can be read on every core at once with parallelStream, which
+ * memory maps the file in chunks that start at game boundaries
+ *
+ * usage: java pgn.PgnReader file [parallel]
+ *
+ * @author Jackson Shortell
+ */
+public class PgnReader implements Iterator<PgnGame>, Closeable {
+
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * longest token kept, longer tokens are cut and fail as moves
+     */
+    private static final int MAX_TOKEN = 64;
+    /**
+     * longest tag value kept, longer values are cut
+     */
+    private static final int MAX_TAG = 4096;
+    /**
+     * size of the chunks parallelStream aims for
+     */
+    private static final long CHUNK_SIZE = 32L << 20;
+    /**
+     * largest chunk that can be memory mapped at once
+     */
+    private static final long MAX_CHUNK = 1L << 30;
+
+    /**
+     * where more input comes from, null if the buffer holds all of it
+     */
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final StringBuilder token;
+    private final byte[] tagValue;
+    private final int[] scratch;
+    private final Map<String, String> tags;
+    private int[] moves;
+
+    private PgnGame next;
+    private boolean started;
+
+    /**
+     * @param channel passes in the channel to read PGN from, it is closed by close
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        this.token = new StringBuilder(MAX_TOKEN);
+        this.tagValue = new byte[MAX_TAG];
+        this.scratch = new int[MoveGenerator.MAX_MOVES];
+        this.tags = new LinkedHashMap<>();
+        this.moves = new int[256];
+    }
+
+    /**
+     * @param source passes in a buffer holding the whole PGN text, such as a
+     *               memory mapped file, it is read from its position to its limit
+     */
+    public PgnReader(ByteBuffer source) {
+        this.channel = null;
+        this.buffer = source.slice();
+        this.token = new StringBuilder(MAX_TOKEN);
+        this.tagValue = new byte[MAX_TAG];
+        this.scratch = new int[MoveGenerator.MAX_MOVES];
+        this.tags = new LinkedHashMap<>();
+        this.moves = new int[256];
+    }
+
+    /**
+     * @param path passes in a PGN file
+     * @return returns a reader of the file
+     * @throws IOException if the file can not be opened
+     */
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readGame();
+        }
+        return next != null;
+    }
+
+    @Override
+    public PgnGame next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        PgnGame game = next;
+        next = null;
+        return game;
+    }
+
+    /**
+     * @return returns the games that are left as a lazy sequential stream, closing
+     *         the stream closes the reader
+     */
+    public Stream<PgnGame> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::closeQuietly);
+    }
+
+    /**
+     * reads a PGN file on every core, the file is split into memory mapped chunks
+     * that each start at a game and each chunk is read by its own PgnReader, so
+     * files larger than 2 GB work and games come out in no particular order
+     *
+     * @param path passes in a PGN file
+     * @return returns a lazy parallel stream of the games, close it to release the
+     *         file
+     * @throws IOException if the file can not be opened or read
+     */
+    public static Stream<PgnGame> parallelStream(Path path) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+        long size = file.size();
+        int chunks = (int) Math.max(Runtime.getRuntime().availableProcessors() * 4L,
+                Math.max((size + CHUNK_SIZE - 1) / CHUNK_SIZE, (size + MAX_CHUNK - 1) / MAX_CHUNK));
+        long[] bounds = new long[chunks + 1];
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = Math.max(bounds[i - 1], findGameStart(file, size * i / chunks, size));
+        }
+        bounds[chunks] = size;
+        return IntStream.range(0, chunks).parallel().filter(i -> bounds[i] < bounds[i + 1]).boxed()
+                .flatMap(i -> new PgnReader(map(file, bounds[i], bounds[i + 1])).stream()).onClose(() -> {
+                    try {
+                        file.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * closes the reader for Stream.onClose, which can not throw IOException
+     */
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * reads the tags and main line of the next game, returns null when the input
+     * is used up
+     */
+    private PgnGame readGame() {
+        if (!started) {
+            started = true;
+            skipByteOrderMark();
+        }
+        tags.clear();
+        int count = 0;
+        String result = null;
+        String error = null;
+        boolean found = false;
+
+        int c = skipSpaces();
+        while (c == '[' || c == '%') {
+            if (c == '[') {
+                readTag();
+                found = true;
+            } else {
+                skipPast('\n');
+            }
+            c = skipSpaces();
+        }
+        Position position = null;
+        try {
+            position = Fen.toPosition(tags.getOrDefault("FEN", Fen.START_POSITION));
+        } catch (IllegalArgumentException e) {
+            error = "bad FEN tag " + tags.get("FEN");
+        }
+
+        int depth = 0;
+        while ((c = skipSpaces()) != -1) {
+            if (c == '[' && depth == 0) {
+                break;
+            }
+            read();
+            found = true;
+            if (c == '{') {
+                skipPast('}');
+                continue;
+            } else if (c == ';' || c == '%') {
+                skipPast('\n');
+                continue;
+            } else if (c == '(') {
+                depth++;
+                continue;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+                continue;
+            } else if (c == '$') {
+                while (peek() >= '0' && peek() <= '9') {
+                    read();
+                }
+                continue;
+            } else if (c == '!' || c == '?') {
+                // a suffix annotation written apart from its move, such as "Qxd5+ !?"
+                while (peek() == '!' || peek() == '?') {
+                    read();
+                }
+                continue;
+            }
+            readToken(c);
+            if (depth > 0) {
+                continue;
+            }
+            if (isResult()) {
+                result = token.toString();
+                break;
+            }
+            stripMoveNumber();
+            if (token.length() == 0 || error != null || isEnPassantMark()) {
+                continue;
+            }
+            int move = San.parse(position, token, scratch);
+            if (move == PackedMove.NONE) {
+                error = "no legal move " + token + " at ply " + (count + 1);
+                continue;
+            }
+            if (count == moves.length) {
+                moves = Arrays.copyOf(moves, count * 2);
+            }
+            moves[count++] = move;
+            position.makeMove(move);
+            if (position.getPly() == Position.MAX_PLY / 2) {
+                // the moves are never unmade, a copy frees their undo slots
+                position = new Position(position);
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        return new PgnGame(tags, Arrays.copyOf(moves, count), result == null ? "*" : result, error);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * reads a tag such as [White "Carlsen, Magnus"], the '[' has not been read
+     */
+    private void readTag() {
+        read();
+        skipSpaces();
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != -1 && c > ' ' && c != '"' && c != ']') {
+            read();
+            if (token.length() < MAX_TOKEN) {
+                token.append((char) c);
+            }
+        }
+        String name = token.toString();
+        skipSpaces();
+        int length = 0;
+        if (peek() == '"') {
+            read();
+            while ((c = read()) != -1 && c != '"' && c != '\n') {
+                if (c == '\\') {
+                    c = read();
+                    if (c == -1) {
+                        break;
+                    }
+                }
+                if (length < MAX_TAG) {
+                    tagValue[length++] = (byte) c;
+                }
+            }
+        }
+        while ((c = peek()) != -1 && c != ']' && c != '\n') {
+            read();
+        }
+        if (c == ']') {
+            read();
+        }
+        tags.put(name, new String(tagValue, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * reads a movetext token starting with a character already read, a token ends
+     * at white space or a character that starts something else
+     */
+    private void readToken(int first) {
+        token.setLength(0);
+        token.append((char) first);
+        int c;
+        while ((c = peek()) != -1 && c > ' ' && c != '{' && c != '}' && c != '(' && c != ')' && c != ';'
+                && c != '[' && c != '$') {
+            read();
+            if (token.length() < MAX_TOKEN) {
+                token.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * checks if the token is a game result
+     */
+    private boolean isResult() {
+        return equalsToken("1-0") || equalsToken("0-1") || equalsToken("1/2-1/2") || equalsToken("*");
+    }
+
+    /**
+     * HELPER FUNCTION
+     * checks if the token is the "e.p." some files write after an en passant
+     * capture, annotation marks may follow it
+     */
+    private boolean isEnPassantMark() {
+        return token.length() >= 4 && token.charAt(0) == 'e' && token.charAt(1) == '.' && token.charAt(2) == 'p'
+                && token.charAt(3) == '.';
+    }
+
+    /**
+     * HELPER FUNCTION
+     * compares the token with a string without building a String from it
+     */
+    private boolean equalsToken(String text) {
+        if (token.length() != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (token.charAt(i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * removes a move number such as "12." or "12..." from the front of the token,
+     * digits not followed by a dot are left since "0-0" is castling
+     */
+    private void stripMoveNumber() {
+        int i = 0;
+        while (i < token.length() && token.charAt(i) >= '0' && token.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == token.length() || token.charAt(i) == '.') {
+            while (i < token.length() && token.charAt(i) == '.') {
+                i++;
+            }
+            token.delete(0, i);
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * skips white space and returns the next character without reading it, -1 at
+     * the end of the input
+     */
+    private int skipSpaces() {
+        int c;
+        while ((c = peek()) != -1 && c <= ' ') {
+            read();
+        }
+        return c;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * reads up to and including the next occurrence of a character
+     */
+    private void skipPast(char end) {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && c != end);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * skips the UTF-8 byte order mark some editors write at the start of a file
+     */
+    private void skipByteOrderMark() {
+        if (peek() == 0xEF) {
+            read();
+            read();
+            read();
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the next byte without reading it, -1 at the end of the input
+     */
+    private int peek() {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * reads the next byte, -1 at the end of the input
+     */
+    private int read() {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * fills the empty buffer from the channel, returns false at the end of the
+     * input
+     */
+    private boolean refill() {
+        if (channel == null) {
+            return false;
+        }
+        try {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * finds where the first game at or after an offset starts, a '[' at the start
+     * of a line that follows a blank line, the end of the file if there is none
+     */
+    private static long findGameStart(FileChannel file, long offset, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(BUFFER_SIZE);
+        boolean lineBlank = false;
+        boolean previousBlank = false;
+        long position = offset;
+        while (position < size) {
+            window.clear();
+            int read = file.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    previousBlank = lineBlank;
+                    lineBlank = true;
+                } else if (b == '[' && lineBlank && previousBlank) {
+                    return position + i;
+                } else if (b > ' ') {
+                    lineBlank = false;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * memory maps part of a file for reading
+     */
+    private static ByteBuffer map(FileChannel file, long start, long end) {
+        try {
+            return file.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args[0]);
+        boolean parallel = args.length > 1 && args[1].equals("parallel");
+        long start = System.currentTimeMillis();
+        long[] counts = new long[3];
+        try (Stream<PgnGame> games = parallel ? parallelStream(path) : open(path).stream()) {
+            games.forEach(game -> {
+                synchronized (counts) {
+                    counts[0]++;
+                    counts[1] += game.isValid() ? 1 : 0;
+                    counts[2] += game.getMoves().length;
+                }
+            });
+        }
+        long millis = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println("games " + counts[0] + " valid " + counts[1] + " plies " + counts[2] + " time " + millis
+                + " ms games/minute " + counts[0] * 60000 / millis);
+    }
+
+}
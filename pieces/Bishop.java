@@ -31,12 +31,22 @@ public class Bishop extends Piece {
 
     @Override
     public TreeSet<Coordinate> allValidMoves(Board board) {
-        return Direction.validDiagonalMoves(board, position, color);
+        return toCoordinates(moves(board));
     }
 
     @Override
     public TreeSet<Coordinate> allValidDefendedSquares(Board board) {
-        return Direction.validDiagonalDefends(board, position);
+        return toCoordinates(attacks(board));
+    }
+
+    @Override
+    public long attacks(Board board) {
+        return Direction.diagonalAttacks(board, position);
+    }
+
+    @Override
+    public long moves(Board board) {
+        return attacks(board) & ~board.getOccupancy(color);
     }
 
 }
\ No newline at end of file
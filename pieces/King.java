@@ -2,6 +2,8 @@ package pieces;
 
 import java.util.TreeSet;
 
+import bitboard.Bitboard;
+import game.AttackMap;
 import game.Board;
 import unit.Team;
 import unit.Coordinate;
@@ -52,121 +54,56 @@ public class King extends Piece implements Unmoved {
     }
 
     /**
-     * updates the inCheck boolean if the Square the King is on is defended by the
+     * updates the inCheck boolean if the Square the King is on is attacked by the
      * opposite color
      */
     public void updateInCheck(Board board) {
-        Square square = board.getSquare(position);
-        this.inCheck = square.getDefendedBy().contains(color.opposite());
+        this.inCheck = board.isSquareAttacked(position, color.opposite());
     }
 
     @Override
     public TreeSet<Coordinate> allValidMoves(Board board) {
-        TreeSet<Coordinate> possibleMoves = possibleMoves();
-        TreeSet<Coordinate> validMoves = new TreeSet<>();
-        for (Coordinate cord : possibleMoves) {
-            Square square = board.getSquare(cord);
-            if (isSquareValid(square)) {
-                validMoves.add(cord);
-            }
-        }
-
-        if (isKingSideCastleValid(board)) {
-            Coordinate cord = Coordinate.getCoordinate(File.G, pieceStart);
-            validMoves.add(cord);
-        }
-
-        if (isQueenSideCastleValid(board)) {
-            Coordinate cord = Coordinate.getCoordinate(File.C, pieceStart);
-            validMoves.add(cord);
-        }
-        return validMoves;
+        return toCoordinates(moves(board));
     }
 
     @Override
     public TreeSet<Coordinate> allValidDefendedSquares(Board board) {
-        TreeSet<Coordinate> possibleMoves = possibleMoves();
-        TreeSet<Coordinate> defends = new TreeSet<>();
-        for (Coordinate cord : possibleMoves) {
-            Square square = board.getSquare(cord);
-            if (!square.getDefendedBy().contains(color.opposite())) {
-                defends.add(cord);
-            }
-        }
-        return defends;
+        return toCoordinates(attacks(board));
     }
 
-    /**
-     * HELPER FUNCTION
-     * checks if a square is valid to move to
-     * 
-     * @param square passes in a square to check
-     * @return returns a boolean
-     */
-    private boolean isSquareValid(Square square) {
-        if (square.getDefendedBy().contains(color.opposite())) {
-            return false;
-        } else {
-            if (square.isOccupied()) {
-                Piece piece = square.getPiece();
-                return color != piece.getTeam();
-            } else {
-                return true;
-            }
-        }
+    @Override
+    public long attacks(Board board) {
+        return Bitboard.KING_ATTACKS[position.getId()];
     }
 
     /**
-     * HELPER FUNCTION
-     * gets a TreeSet of the possible 8 or less moves the king can make
-     * 
-     * @param board    passes in the current state of the board
-     * @param position passes in the position of the king
-     * @return returns a TreeSet containing valid moves
+     * gets the squares the King can step to that are not attacked plus the
+     * castling squares, the attack map answers most squares but while the King is
+     * in check its own square is treated as empty so it can not hide from a line
+     * attack by stepping along the line
      */
-    private TreeSet<Coordinate> possibleMoves() {
-        TreeSet<Coordinate> moves = new TreeSet<>();
-        int one = 1;
-        for (int i = 0; i < 2; i++) {
-            addCoordToTreeSet(moves, 0, one);
-            addCoordToTreeSet(moves, one, one);
-            addCoordToTreeSet(moves, one, 0);
-            addCoordToTreeSet(moves, one, -one);
-            one *= -1;
+    @Override
+    public long moves(Board board) {
+        int from = position.getId();
+        Team enemy = color.opposite();
+        AttackMap attackMap = board.getAttackMap();
+        boolean inCheckNow = attackMap.isAttacked(from, enemy);
+        long targets = Bitboard.KING_ATTACKS[from] & ~board.getOccupancy(color) & ~attackMap.getAttacked(enemy);
+        long moves = inCheckNow ? 0L : targets;
+        for (int to : Bitboard.KING_TARGETS[from]) {
+            if (inCheckNow && (targets & (1L << to)) != 0 && !board.isSquareAttacked(to, enemy, from)) {
+                moves |= 1L << to;
+            }
         }
-        return moves;
-    }
 
-    /**
-     * HELPER FUNCTION
-     * given a set of Coordinates and a int for file and rank change produces a
-     * Coordinate, if the Coordinate is not null adds it to the set
-     * 
-     * @param set
-     * @param fileChange
-     * @param rankChange
-     */
-    private void addCoordToTreeSet(TreeSet<Coordinate> set, int fileChange, int rankChange) {
-        Coordinate coordinate = singleMove(fileChange, rankChange);
-        if (coordinate != null) {
-            set.add(coordinate);
+        if (isKingSideCastleValid(board)) {
+            moves |= 1L << Coordinate.getCoordinate(File.G, pieceStart).getId();
         }
-    }
 
-    /**
-     * HELPER FUNCTION
-     * produces a Coordinate that the King could possibly move to
-     * 
-     * @param fileChange passes in an int (-1, 0, or 1) to indicate the new file
-     * @param rankChange passes in an int (-1, 0, or 1) to indicate the new rank
-     * @return returns a Coordinate
-     */
-    private Coordinate singleMove(int fileChange, int rankChange) {
-        int rankIndex = position.getRankIndex();
-        int fileIndex = position.getFileIndex();
-        File file = File.indexToFile(fileIndex + fileChange);
-        Rank rank = Rank.indexToRank(rankIndex + rankChange);
-        return Coordinate.getCoordinate(file, rank);
+        if (isQueenSideCastleValid(board)) {
+            moves |= 1L << Coordinate.getCoordinate(File.C, pieceStart).getId();
+        }
+        return moves;
     }
 
     /**
@@ -177,7 +114,7 @@ public class King extends Piece implements Unmoved {
      * @return returns true if it is valid, false otherwise
      */
     private boolean isKingSideCastleValid(Board board) {
-        if (Unmoved && !inCheck) {
+        if (Unmoved && !board.isSquareAttacked(position, color.opposite())) {
             if (isRookUnmoved(board, File.H) && isKingCastleSquaresClear(board)) {
                 return true;
             }
@@ -193,7 +130,7 @@ public class King extends Piece implements Unmoved {
      * @return returns true if it is valid, false otherwise
      */
     private boolean isQueenSideCastleValid(Board board) {
-        if (Unmoved && !inCheck) {
+        if (Unmoved && !board.isSquareAttacked(position, color.opposite())) {
             if (isRookUnmoved(board, File.A) && isQueenCastleSquaresClear(board)) {
                 return true;
             }
@@ -230,12 +167,10 @@ public class King extends Piece implements Unmoved {
      * @return returns true if the king can castle on the king side, false otherwise
      */
     private boolean isKingCastleSquaresClear(Board board) {
-        Coordinate coord = Coordinate.getCoordinate(File.F, pieceStart);
-        Square fSquare = board.getSquare(coord);
-        coord = Coordinate.getCoordinate(File.G, pieceStart);
-        Square gSquare = board.getSquare(coord);
+        Coordinate fCoord = Coordinate.getCoordinate(File.F, pieceStart);
+        Coordinate gCoord = Coordinate.getCoordinate(File.G, pieceStart);
 
-        return isCastleSquareValid(fSquare) && isCastleSquareValid(gSquare);
+        return isCastleSquareValid(board, fCoord) && isCastleSquareValid(board, gCoord);
     }
 
     /**
@@ -247,28 +182,26 @@ public class King extends Piece implements Unmoved {
      *         otherwise
      */
     private boolean isQueenCastleSquaresClear(Board board) {
-        Coordinate coord = Coordinate.getCoordinate(File.B, pieceStart);
-        Square bSquare = board.getSquare(coord);
-        coord = Coordinate.getCoordinate(File.C, pieceStart);
-        Square cSquare = board.getSquare(coord);
-        coord = Coordinate.getCoordinate(File.D, pieceStart);
-        Square dSquare = board.getSquare(coord);
+        Square bSquare = board.getSquare(Coordinate.getCoordinate(File.B, pieceStart));
+        Coordinate cCoord = Coordinate.getCoordinate(File.C, pieceStart);
+        Coordinate dCoord = Coordinate.getCoordinate(File.D, pieceStart);
 
-        return bSquare.isEmpty() && isCastleSquareValid(cSquare) && isCastleSquareValid(dSquare);
+        return bSquare.isEmpty() && isCastleSquareValid(board, cCoord) && isCastleSquareValid(board, dCoord);
 
     }
 
     /**
      * HELPER FUNCTION
-     * checks to see if a given Square is empty and not defended by the opposite
+     * checks to see if a given Square is empty and not attacked by the opposite
      * color
      * 
-     * @param square passes in the Square you are checking
-     * @return returns true if the Square is empty and not defended by the opposite
+     * @param board passes in the current state of the board
+     * @param coord passes in the Coordinate of the Square you are checking
+     * @return returns true if the Square is empty and not attacked by the opposite
      *         color, false otherwise
      */
-    private boolean isCastleSquareValid(Square square) {
-        return square.isEmpty() && !square.getDefendedBy().contains(color.opposite());
+    private boolean isCastleSquareValid(Board board, Coordinate coord) {
+        return board.getSquare(coord).isEmpty() && !board.isSquareAttacked(coord, color.opposite());
     }
 
     public boolean getUnmoved() {
@@ -279,4 +212,8 @@ public class King extends Piece implements Unmoved {
         this.Unmoved = false;
     }
 
+    public void setUnmoved(boolean unmoved) {
+        this.Unmoved = unmoved;
+    }
+
 }
\ No newline at end of file
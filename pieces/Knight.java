@@ -2,10 +2,10 @@ package pieces;
 
 import java.util.TreeSet;
 
+import bitboard.Bitboard;
 import game.Board;
 import unit.Team;
 import unit.Coordinate;
-import unit.Square;
 
 /**
  * class the represents the Knight Piece in chess
@@ -40,15 +40,7 @@ public class Knight extends Piece {
 
     @Override
     public TreeSet<Coordinate> allValidMoves(Board board) {
-        TreeSet<Coordinate> validMoves = new TreeSet<>();
-        TreeSet<Coordinate> possibleMoves = allPossibleMoves();
-        for (Coordinate coord : possibleMoves) {
-            Square square = board.getSquare(coord);
-            if (isSquareValid(square)) {
-                validMoves.add(coord);
-            }
-        }
-        return validMoves;
+        return toCoordinates(moves(board));
     }
 
     @Override
@@ -56,72 +48,24 @@ public class Knight extends Piece {
         return allPossibleMoves();
     }
 
-    /**
-     * HELPER FUNCTION
-     * determines if a Square is valid to move to, a Square is valid to move to if
-     * it is empty or the Piece occupying is the opposite color
-     * 
-     * @param square passes in the square to check
-     * @return returns true if the square is valid to move to and false otherwise
-     */
-    private boolean isSquareValid(Square square) {
-        if (square.isEmpty()) {
-            return true;
-        } else {
-            Piece piece = square.getPiece();
-            return color != piece.getTeam();
-        }
-    }
-
-    /**
-     * HELPER FUNCTION
-     * produces a TreeSet of all possible moves for the Knight
-     * 
-     * @return returns a Tree Set of Coordinates
-     */
-    public TreeSet<Coordinate> allPossibleMoves() {
-        TreeSet<Coordinate> moves = new TreeSet<>();
-        int one = 1;
-        int two = 2;
-        addCoordToTreeSet(moves, one, two);
-        addCoordToTreeSet(moves, two, one);
-        addCoordToTreeSet(moves, one, -two);
-        addCoordToTreeSet(moves, two, -one);
-        addCoordToTreeSet(moves, -one, two);
-        addCoordToTreeSet(moves, -two, one);
-        addCoordToTreeSet(moves, -one, -two);
-        addCoordToTreeSet(moves, -two, -one);
-        return moves;
+    @Override
+    public long attacks(Board board) {
+        return Bitboard.KNIGHT_ATTACKS[position.getId()];
     }
 
-    /**
-     * HELPER FUNCTION
-     * given a set of Coordinates and a int for file and rank change produces a
-     * Coordinate, if the Coordinate is not null adds it to the set
-     * 
-     * @param set
-     * @param fileChange
-     * @param rankChange
-     */
-    private void addCoordToTreeSet(TreeSet<Coordinate> set, int fileChange, int rankChange) {
-        Coordinate coordinate = singleMove(fileChange, rankChange);
-        if (coordinate != null) {
-            set.add(coordinate);
-        }
+    @Override
+    public long moves(Board board) {
+        return Bitboard.KNIGHT_ATTACKS[position.getId()] & ~board.getOccupancy(color);
     }
 
     /**
-     * HELPER FUNCTION
-     * produces a Coordinate that could be a legal move for the knight
+     * produces a TreeSet of all possible moves for the Knight from the attack
+     * table
      * 
-     * @param fileChange the change in the file as an int
-     * @param rankChange the change in the rank as an int
-     * @return returns a Coordinate, or null if trying to move off the board
+     * @return returns a Tree Set of Coordinates
      */
-    private Coordinate singleMove(int fileChange, int rankChange) {
-        int fileIndex = position.getFileIndex();
-        int rankIndex = position.getRankIndex();
-        return Coordinate.getCoordinate(fileIndex + fileChange, rankIndex + rankChange);
+    public TreeSet<Coordinate> allPossibleMoves() {
+        return toCoordinates(Bitboard.KNIGHT_ATTACKS[position.getId()]);
     }
 
-}
\ No newline at end of file
+}
@@ -2,13 +2,13 @@ package pieces;
 
 import java.util.TreeSet;
 
+import bitboard.Bitboard;
 import game.Board;
 import unit.Team;
 import unit.Coordinate;
 import unit.File;
 import unit.Move;
 import unit.Rank;
-import unit.Square;
 
 /**
  * class that represents the Pawn piece in chess
@@ -42,67 +42,45 @@ public class Pawn extends Piece implements Unmoved {
 
     @Override
     public TreeSet<Coordinate> allValidMoves(Board board) {
-        TreeSet<Coordinate> moves = allMoves(board);
-        Coordinate leftDefend = leftCapture();
-        if (leftDefend != null) {
-            Square upLeft = board.getSquare(leftDefend);
-            if ((upLeft.isOccupied() && upLeft.getPieceColor() != color) || isLeftEnPassantValid(board)) {
-                moves.add(leftDefend);
-            }
-        }
-        Coordinate rightDefend = rightCapture();
-        if (rightDefend != null) {
-            Square upRight = board.getSquare(rightDefend);
-            if ((upRight.isOccupied() && upRight.getPiece().getTeam() != color) || isRightEnPassantValid(board)) {
-                moves.add(rightDefend);
-            }
-        }
-        return moves;
+        return toCoordinates(moves(board));
     }
 
     @Override
     public TreeSet<Coordinate> allValidDefendedSquares(Board board) {
-        TreeSet<Coordinate> defends = new TreeSet<>();
-
-        Coordinate cord = leftCapture();
-
-        if (cord != null) {
-            defends.add(cord);
-        }
-
-        cord = rightCapture();
-        if (cord != null) {
-            defends.add(cord);
-        }
+        return toCoordinates(attacks(board));
+    }
 
-        return defends;
+    @Override
+    public long attacks(Board board) {
+        return Bitboard.PAWN_ATTACKS[color.ordinal()][position.getId()];
     }
 
     /**
-     * HELPER FUNCTION
-     * gets the one or two non capturing moves the pawn can make
-     * 
-     * @param board passes in the current state of the board
-     * @return returns a TreeSet of Coordinates
+     * gets the one or two non capturing moves, the captures of opposite color
+     * Pieces and any en passant capture
      */
-    private TreeSet<Coordinate> allMoves(Board board) {
-        TreeSet<Coordinate> moves = new TreeSet<>();
-        int rankIndex = position.getRankIndex();
+    @Override
+    public long moves(Board board) {
+        long attacks = attacks(board);
+        long moves = attacks & board.getOccupancy(color.opposite());
         int fileIndex = position.getFileIndex();
+        if (fileIndex > 0 && isLeftEnPassantValid(board)) {
+            moves |= attacks & (Bitboard.FILE_A << (fileIndex - 1));
+        }
+        if (fileIndex < 7 && isRightEnPassantValid(board)) {
+            moves |= attacks & (Bitboard.FILE_A << (fileIndex + 1));
+        }
 
-        int one = (color == Team.WHITE) ? 1 : -1;
-        int two = (color == Team.WHITE) ? 2 : -2;
+        int rankIndex = position.getRankIndex();
         if (rankIndex != 7 && rankIndex != 0) {
-            Coordinate move = Coordinate.getCoordinate(fileIndex, rankIndex + one);
-            Square oneInFront = board.getSquare(move);
-            if (oneInFront.isEmpty()) {
-                moves.add(move);
-            }
-            if (Unmoved) {
-                move = Coordinate.getCoordinate(fileIndex, rankIndex + two);
-                Square twoInFront = board.getSquare(move);
-                if (oneInFront.isEmpty() && twoInFront.isEmpty()) {
-                    moves.add(move);
+            long empty = ~board.getOccupied();
+            int step = color == Team.WHITE ? 8 : -8;
+            long oneInFront = 1L << (position.getId() + step);
+            if ((oneInFront & empty) != 0) {
+                moves |= oneInFront;
+                if (Unmoved && rankIndex == (color == Team.WHITE ? 1 : 6)) {
+                    long twoInFront = 1L << (position.getId() + 2 * step);
+                    moves |= twoInFront & empty;
                 }
             }
         }
@@ -172,36 +150,6 @@ public class Pawn extends Piece implements Unmoved {
         return false;
     }
 
-    /**
-     * HELPER FUNCTION
-     * gets the Coordinate in front (relative to the direction the pawn is moving)
-     * one and left one of the pawns current position
-     * returns null if that Coordinate is not on the board
-     * 
-     * @return returns a Coordinate
-     */
-    private Coordinate leftCapture() {
-        int file = position.getFileIndex() - 1;
-        int advance = color == Team.WHITE ? 1 : -1;
-        int rank = position.getRankIndex() + advance;
-        return Coordinate.getCoordinate(file, rank);
-    }
-
-    /**
-     * HELPER FUNCTION
-     * gets the Coordinate in front one (relative to the direction the pawn is
-     * moving) and right one of the pawns current position
-     * returns null if that Coordinate is not on the board
-     * 
-     * @return returns a Coordinate
-     */
-    private Coordinate rightCapture() {
-        int file = position.getFileIndex() + 1;
-        int advance = color == Team.WHITE ? 1 : -1;
-        int rank = position.getRankIndex() + advance;
-        return Coordinate.getCoordinate(file, rank);
-    }
-
     public boolean getUnmoved() {
         return this.Unmoved;
     }
@@ -211,4 +159,8 @@ public class Pawn extends Piece implements Unmoved {
 
     }
 
+    public void setUnmoved(boolean unmoved) {
+        this.Unmoved = unmoved;
+    }
+
 }
\ No newline at end of file
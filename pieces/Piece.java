@@ -1,5 +1,6 @@
 package pieces;
 
+import java.util.Collection;
 import java.util.TreeSet;
 
 import game.Board;
@@ -127,6 +128,60 @@ public abstract class Piece implements Comparable<Piece> {
      */
     public abstract TreeSet<Coordinate> allValidDefendedSquares(Board board);
 
+    /**
+     * gets every square the Piece attacks as a bitboard, bit n set means the
+     * Coordinate with id n, pieces with attack tables override this so it does not
+     * allocate
+     * 
+     * @param board passes in the current state of the Board
+     * @return returns a bitboard of defended squares
+     */
+    public long attacks(Board board) {
+        return toBitboard(allValidDefendedSquares(board));
+    }
+
+    /**
+     * gets every square the Piece can move to as a bitboard, pieces with attack
+     * tables override this so it does not allocate
+     * 
+     * @param board passes in the current state of the Board
+     * @return returns a bitboard of valid moves
+     */
+    public long moves(Board board) {
+        return toBitboard(allValidMoves(board));
+    }
+
+    /**
+     * converts Coordinates into a bitboard
+     * 
+     * @param coordinates passes in the Coordinates to set
+     * @return returns a bitboard with the id of each Coordinate set
+     */
+    public static long toBitboard(Collection<Coordinate> coordinates) {
+        long bitboard = 0L;
+        for (Coordinate coordinate : coordinates) {
+            bitboard |= 1L << coordinate.getId();
+        }
+        return bitboard;
+    }
+
+    /**
+     * converts a bitboard into a TreeSet of Coordinates, used to keep the TreeSet
+     * methods working on top of the bitboard ones
+     * 
+     * @param bitboard passes in a bitboard
+     * @return returns a TreeSet with a Coordinate for each set bit
+     */
+    public static TreeSet<Coordinate> toCoordinates(long bitboard) {
+        TreeSet<Coordinate> coordinates = new TreeSet<>();
+        while (bitboard != 0) {
+            int square = Long.numberOfTrailingZeros(bitboard);
+            coordinates.add(Coordinate.getCoordinate(square));
+            bitboard &= bitboard - 1;
+        }
+        return coordinates;
+    }
+
     @Override
     public int compareTo(Piece o) {
         if (this.value != o.value) {
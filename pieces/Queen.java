@@ -31,16 +31,22 @@ public class Queen extends Piece {
 
     @Override
     public TreeSet<Coordinate> allValidMoves(Board board) {
-        TreeSet<Coordinate> moves = Direction.validLinearMoves(board, position, color);
-        moves.addAll(Direction.validDiagonalMoves(board, position, color));
-        return moves;
+        return toCoordinates(moves(board));
     }
 
     @Override
     public TreeSet<Coordinate> allValidDefendedSquares(Board board) {
-        TreeSet<Coordinate> defends = Direction.validLinearDefends(board, position);
-        defends.addAll(Direction.validDiagonalDefends(board, position));
-        return defends;
+        return toCoordinates(attacks(board));
+    }
+
+    @Override
+    public long attacks(Board board) {
+        return Direction.linearAttacks(board, position) | Direction.diagonalAttacks(board, position);
+    }
+
+    @Override
+    public long moves(Board board) {
+        return attacks(board) & ~board.getOccupancy(color);
     }
 
 }
\ No newline at end of file
@@ -33,16 +33,27 @@ public class Rook extends Piece implements Unmoved {
      */
     public Rook(Rook template) {
         super(template.getValue(), template.getPosition(), template.getTeam(), template.getName());
+        this.Unmoved = template.getUnmoved();
     }
 
     @Override
     public TreeSet<Coordinate> allValidMoves(Board board) {
-        return Direction.validLinearMoves(board, position, color);
+        return toCoordinates(moves(board));
     }
 
     @Override
     public TreeSet<Coordinate> allValidDefendedSquares(Board board) {
-        return Direction.validLinearDefends(board, position);
+        return toCoordinates(attacks(board));
+    }
+
+    @Override
+    public long attacks(Board board) {
+        return Direction.linearAttacks(board, position);
+    }
+
+    @Override
+    public long moves(Board board) {
+        return attacks(board) & ~board.getOccupancy(color);
     }
 
     public boolean getUnmoved() {
@@ -53,4 +64,8 @@ public class Rook extends Piece implements Unmoved {
         this.Unmoved = false;
     }
 
+    public void setUnmoved(boolean unmoved) {
+        this.Unmoved = unmoved;
+    }
+
 }
\ No newline at end of file
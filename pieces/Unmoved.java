@@ -18,4 +18,11 @@ public interface Unmoved {
      */
     public void setUnmovedFalse();
 
+    /**
+     * sets the Unmoved boolean, used to restore it when a move is taken back
+     *
+     * @param unmoved passes in the value to restore
+     */
+    public void setUnmoved(boolean unmoved);
+
 }
\ No newline at end of file
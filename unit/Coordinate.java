@@ -1,7 +1,5 @@
 package unit;
 
-import java.util.TreeMap;
-
 /**
  * class that represents the coordinates on a chess board
  * 
@@ -9,7 +7,11 @@ import java.util.TreeMap;
  */
 public class Coordinate implements Comparable<Coordinate> {
 
-    private static final TreeMap<Integer, Coordinate> ID_TO_COORDINATE;
+    /**
+     * the only 64 Coordinates that exist, indexed by id, so Coordinates can be
+     * compared with == and looking one up never allocates
+     */
+    private static final Coordinate[] COORDINATES = new Coordinate[64];
 
     /**
      * the file of the Coordinate for horizontal position
@@ -50,6 +52,16 @@ public class Coordinate implements Comparable<Coordinate> {
         return color;
     }
 
+    /**
+     * gets the 0-63 id of the Coordinate, rank * 8 + file, which is also its bit
+     * in a bitboard
+     * 
+     * @return returns an int
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * gets the index of the File enum of the Coordinate
      * 
@@ -68,6 +80,20 @@ public class Coordinate implements Comparable<Coordinate> {
         return rank.getIndex();
     }
 
+    /**
+     * gets a Coordinate given its id
+     * 
+     * @param id passes in an int, rank * 8 + file
+     * @return returns a Coordinate, or null if the id is not on the board
+     */
+    public static Coordinate getCoordinate(int id) {
+        if (-1 < id && id < 64) {
+            return COORDINATES[id];
+        } else {
+            return null;
+        }
+    }
+
     /**
      * gets a Coordinate given the File index and Rank index
      * 
@@ -77,7 +103,7 @@ public class Coordinate implements Comparable<Coordinate> {
      */
     public static Coordinate getCoordinate(int file, int rank) {
         if ((-1 < file && file < 8) && (-1 < rank && rank < 8)) {
-            return getCoordinate(File.indexToFile(file) , Rank.indexToRank(rank));
+            return COORDINATES[rank * 8 + file];
         } else {
             return null;
         }
@@ -93,9 +119,7 @@ public class Coordinate implements Comparable<Coordinate> {
      */
     public static Coordinate getCoordinate(File file, Rank rank) {
         if (file != null && rank != null) {
-            int fileIndex = file.getIndex();
-            int rankIndex = rank.getIndex();
-            return new Coordinate(file, rank, indexToTeam(fileIndex, rankIndex), (rankIndex * 8 + fileIndex) );
+            return COORDINATES[rank.getIndex() * 8 + file.getIndex()];
         } else {
             return null;
         }
@@ -147,10 +171,9 @@ public class Coordinate implements Comparable<Coordinate> {
 
     /**
      * creates every possible Coordinate on a chess board in order of priority
-     * and adds them to a TreeMap
+     * and stores each at its id
      */
     static {
-        ID_TO_COORDINATE = new TreeMap<>();
         int key = 0;
         for (int rankIndex = 0; rankIndex < 8; rankIndex++) {
             for (int fileIndex = 0; fileIndex < 8; fileIndex++) {
@@ -158,7 +181,7 @@ public class Coordinate implements Comparable<Coordinate> {
                 Rank rank = Rank.indexToRank(rankIndex);
                 Team color = indexToTeam(fileIndex, rankIndex);
                 Coordinate value = new Coordinate(file, rank, color, key);
-                ID_TO_COORDINATE.put(key, value);
+                COORDINATES[key] = value;
                 key++;
             }
         }
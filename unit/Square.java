@@ -1,7 +1,5 @@
 package unit;
 
-import java.util.TreeSet;
-
 import pieces.Piece;
 
 /**
@@ -15,14 +13,9 @@ public class Square {
      * Piece that is on the Square, null if Square is empty
      */
     private Piece piece;
-    /**
-     * the Color of the pieces that defend the Square
-     */
-    private TreeSet<Team> defendedBy;
 
     public Square() {
         this.piece = null;
-        this.defendedBy = new TreeSet<>();
     }
 
     /**
@@ -32,21 +25,12 @@ public class Square {
      */
     public Square(Square template) {
         this.piece = Piece.copyPiece(template.getPiece());
-        this.defendedBy = new TreeSet<>();
-        TreeSet<Team> original = template.getDefendedBy();
-        for (Team color : original) {
-            this.defendedBy.add(color);
-        }
     }
 
     public Piece getPiece() {
         return piece == null ? null : piece;
     }
 
-    public TreeSet<Team> getDefendedBy() {
-        return defendedBy;
-    }
-
     /**
      * gets the Color of the Piece occupying the Square
      * 
@@ -93,23 +77,6 @@ public class Square {
         return setPiece(null);
     }
 
-    /**
-     * adds a Color to the Squares defendedBy TreeSet
-     * 
-     * @param color passes in a color to add
-     */
-    public void addDefendedBy(Team color) {
-        this.defendedBy.add(color);
-    }
-
-    /**
-     * removes all Colors from the Squares defendedBy set
-     */
-    public void clearDefendBy() {
-        this.defendedBy.remove(Team.WHITE);
-        this.defendedBy.remove(Team.BLACK);
-    }
-
     @Override
     public String toString() {
         String str = isOccupied() ? piece.symbol() : " ";
@@ -3,6 +3,9 @@ package view;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
+import bitboard.MoveGenerator;
+import bitboard.PackedMove;
+import bitboard.San;
 import game.Board;
 import model.Chess;
 import pieces.Piece;
@@ -16,9 +19,14 @@ import unit.Rank;
 public class ChessCLI {
 
     private Chess game;
+    /**
+     * legal moves of the position a SAN command is read in
+     */
+    private final int[] scratch;
 
     public ChessCLI() {
         game = new Chess();
+        scratch = new int[MoveGenerator.MAX_MOVES];
     }
 
     public Chess getGame() {
@@ -96,7 +104,8 @@ public class ChessCLI {
 
     /**
      * given an input string uses regular expression to break down and understand
-     * the command to help the user, execute moves, look at possible moves, and quit
+     * the command to help the user, execute moves, look at possible moves, and
+     * quit, anything else is tried as a move in algebraic notation
      * 
      * @param input input string
      * @return returns a string that can ID what kind of command was executed
@@ -108,7 +117,8 @@ public class ChessCLI {
 
             String help = "quit - quits the game\nhelp - produces this message\n"
                     + "move <Coordinate 1> <Coordinate 2> - move a piece from Coordinate 1 to Coordinate 2 if the move is valid\n"
-                    + "<Coordinate> moves - produces a list of available moves of the piece on that Coordinate\n";
+                    + "<Coordinate> moves - produces a list of available moves of the piece on that Coordinate\n"
+                    + "<SAN move> - plays a move written in algebraic notation such as Nf3, exd5, O-O or e8=Q\n";
             System.out.println(help);
             return input;
 
@@ -136,6 +146,19 @@ public class ChessCLI {
                 System.out.println("no piece on " + tokens[0]);
             }
 
+        } else {
+            int move = San.parse(game, input.trim(), scratch);
+            if (move != PackedMove.NONE) {
+                String promotion = PackedMove.promotionName(move);
+                game.submitCoordinate(Coordinate.getCoordinate(PackedMove.from(move)));
+                game.submitCoordinate(Coordinate.getCoordinate(PackedMove.to(move)));
+                boolean valid = game.playMove();
+                game.setMoveNull();
+                if (valid && promotion != null) {
+                    game.promotePawn(promotion);
+                }
+                return valid ? "valid move" : "invalid move";
+            }
         }
         return "";
     }
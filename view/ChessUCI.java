@@ -0,0 +1,487 @@
+package view;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+import bitboard.Fen;
+import bitboard.MoveGenerator;
+import bitboard.MoveList;
+import bitboard.PackedMove;
+import bitboard.Position;
+import engine.ParallelSearch;
+import engine.PolyglotBook;
+import engine.Search;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.TranspositionTable;
+
+/**
+ * class that lets the engine be driven by any program that speaks the UCI
+ * protocol (GUIs, match runners, analysis scripts) through standard input and
+ * output
+ *
+ * commands are read on the calling thread and every search runs on a worker
+ * thread, so stop, ponderhit and isready are answered while the engine thinks,
+ * an info line is written after each finished iteration and bestmove once the
+ * search is over, after go infinite or go ponder bestmove is held back until
+ * stop or ponderhit even if the search ends on its own
+ *
+ * with the Book option set to a Polyglot .bin file a position found in the book
+ * is answered with a weighted book move at once instead of a search, unless the
+ * go is infinite or ponder
+ *
+ * usage: java view.ChessUCI
+ *
+ * @author Jackson Shortell
+ */
+public class ChessUCI {
+
+    private static final String NAME = "Chess";
+    private static final String AUTHOR = "Jackson Shortell";
+
+    private static final int MAX_HASH = 4096;
+    private static final int MAX_THREADS = 256;
+    /**
+     * moves left in the game assumed when go does not give movestogo
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    /**
+     * milliseconds kept back from every move for the time it takes the move to
+     * reach the GUI
+     */
+    private static final long MOVE_OVERHEAD = 50;
+
+    private final PrintStream out;
+    private final TranspositionTable table;
+    private final ParallelSearch search;
+    private final Timer timer;
+    private Position position;
+    private Thread worker;
+    /**
+     * true while bestmove has to wait for stop or ponderhit
+     */
+    private boolean holding;
+    /**
+     * milliseconds to search for once a ponder search becomes a real search, 0 if
+     * there is no time limit
+     */
+    private long ponderTime;
+    /**
+     * stops the search once the time after a ponderhit is used up, null if none
+     * is waiting
+     */
+    private TimerTask ponderTask;
+    /**
+     * the opening book moves are taken from, null if there is none
+     */
+    private PolyglotBook book;
+    private final int[] bookScratch;
+
+    /**
+     * @param out passes in the stream the engine writes its answers to
+     */
+    public ChessUCI(PrintStream out) {
+        this.out = out;
+        this.table = new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES);
+        this.search = new ParallelSearch(1, table);
+        this.timer = new Timer("uci-timer", true);
+        this.position = Fen.toPosition(Fen.START_POSITION);
+        this.bookScratch = new int[MoveGenerator.MAX_MOVES];
+        search.register(result -> sendInfo(result));
+    }
+
+    /**
+     * reads commands until quit or the end of the input
+     *
+     * @param in passes in the reader the commands come from
+     * @throws IOException if reading the input fails
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!execute(line)) {
+                break;
+            }
+        }
+        stopSearch();
+        timer.cancel();
+    }
+
+    /**
+     * carries out a single command, unknown commands are ignored as the protocol
+     * asks
+     *
+     * @param line passes in a line of input
+     * @return returns false if the command was quit and true otherwise
+     */
+    public boolean execute(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default " + TranspositionTable.DEFAULT_MEGABYTES + " min 1 max "
+                        + MAX_HASH);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name Book type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                table.clear();
+                position = Fen.toPosition(Fen.START_POSITION);
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "position":
+                stopSearch();
+                setPosition(tokens);
+                break;
+            case "go":
+                stopSearch();
+                go(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "quit":
+                return false;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * handles setoption name Hash value n, setoption name Threads value n and
+     * setoption name Book value path, the running search is finished first since
+     * they replace what it uses, a path may hold spaces and <empty> turns the book
+     * off
+     */
+    private void setOption(String[] tokens) {
+        String name = "";
+        String value = "";
+        int i = 1;
+        while (i < tokens.length) {
+            if (tokens[i].equals("name") && i + 1 < tokens.length) {
+                name = tokens[++i];
+            } else if (tokens[i].equals("value") && i + 1 < tokens.length) {
+                value = String.join(" ", Arrays.copyOfRange(tokens, i + 1, tokens.length));
+                break;
+            }
+            i++;
+        }
+        try {
+            if (name.equalsIgnoreCase("Hash")) {
+                stopSearch();
+                table.resize(Math.max(1, Math.min(MAX_HASH, Integer.parseInt(value))));
+            } else if (name.equalsIgnoreCase("Threads")) {
+                stopSearch();
+                search.setThreads(Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value))));
+            } else if (name.equalsIgnoreCase("Book")) {
+                stopSearch();
+                book = value.isEmpty() || value.equals("<empty>") ? null : new PolyglotBook(Paths.get(value));
+            }
+        } catch (NumberFormatException e) {
+            send("info string bad value " + value + " for option " + name);
+        } catch (IOException | IllegalStateException e) {
+            book = null;
+            send("info string book not loaded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * handles position startpos|fen ... [moves ...], moves are in long algebraic
+     * form and the first one that is not legal ends the list, the keys of the
+     * positions the moves went through are kept so the search sees repetitions
+     * of the game, a list of any length is accepted
+     */
+    private void setPosition(String[] tokens) {
+        int i = 1;
+        Position next;
+        if (i < tokens.length && tokens[i].equals("startpos")) {
+            next = Fen.toPosition(Fen.START_POSITION);
+            i++;
+        } else if (i < tokens.length && tokens[i].equals("fen")) {
+            String fen = "";
+            i++;
+            while (i < tokens.length && !tokens[i].equals("moves")) {
+                fen += tokens[i++] + " ";
+            }
+            try {
+                next = Fen.toPosition(fen.trim());
+            } catch (IllegalArgumentException e) {
+                send("info string bad fen " + fen.trim());
+                return;
+            }
+        } else {
+            return;
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            MoveList moves = new MoveList();
+            for (i++; i < tokens.length; i++) {
+                int move = findMove(next, tokens[i], moves);
+                if (move == PackedMove.NONE) {
+                    send("info string illegal move " + tokens[i]);
+                    break;
+                }
+                if (next.getPly() == Position.MAX_PLY / 2) {
+                    // a copy keeps the keys repetitions need and frees the undo slots
+                    next = new Position(next);
+                }
+                next.makeMove(move);
+            }
+        }
+        position = new Position(next);
+    }
+
+    /**
+     * HELPER FUNCTION
+     * returns the legal move of a Position written as text such as "e7e8q" or
+     * PackedMove.NONE if there is none
+     */
+    private static int findMove(Position position, String text, MoveList moves) {
+        MoveGenerator.generateLegalMoves(position, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toString(moves.get(i)).equals(text.toLowerCase())) {
+                return moves.get(i);
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * handles go with depth, nodes, movetime, wtime, btime, winc, binc, movestogo,
+     * infinite and ponder and starts the worker thread
+     */
+    private void go(String[] tokens) {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long[] time = { -1, -1 };
+        long[] increment = { 0, 0 };
+        int movesToGo = 0;
+        boolean infinite = false;
+        boolean ponder = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth":
+                        depth = Integer.parseInt(tokens[++i]);
+                        break;
+                    case "nodes":
+                        nodes = Long.parseLong(tokens[++i]);
+                        break;
+                    case "movetime":
+                        moveTime = Long.parseLong(tokens[++i]);
+                        break;
+                    case "wtime":
+                        time[Position.WHITE] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "btime":
+                        time[Position.BLACK] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "winc":
+                        increment[Position.WHITE] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "binc":
+                        increment[Position.BLACK] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "movestogo":
+                        movesToGo = Integer.parseInt(tokens[++i]);
+                        break;
+                    case "infinite":
+                        infinite = true;
+                        break;
+                    case "ponder":
+                        ponder = true;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string bad go command");
+            return;
+        }
+
+        if (book != null && !infinite && !ponder) {
+            int move = book.pickMove(position, ThreadLocalRandom.current().nextDouble(), bookScratch);
+            if (move != PackedMove.NONE) {
+                send("info string book move");
+                send("bestmove " + PackedMove.toString(move));
+                return;
+            }
+        }
+
+        int side = position.getSideToMove();
+        if (moveTime == 0 && time[side] >= 0) {
+            moveTime = allocateTime(time[side], increment[side], movesToGo);
+        }
+        boolean unlimited = depth == 0 && nodes == 0 && moveTime == 0;
+        synchronized (this) {
+            holding = infinite || ponder || unlimited;
+            ponderTime = ponder ? moveTime : 0;
+        }
+        SearchLimits limits = new SearchLimits(depth, nodes, holding ? 0 : moveTime);
+        Position root = new Position(position);
+        worker = new Thread(() -> think(root, limits), "uci-search");
+        worker.start();
+    }
+
+    /**
+     * HELPER FUNCTION
+     * splits the time left on the clock evenly over the moves still to play and
+     * adds most of the increment, never more than the clock holds
+     */
+    private static long allocateTime(long timeLeft, long increment, int movesToGo) {
+        long moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+        long allocated = timeLeft / moves + increment * 3 / 4;
+        return Math.max(1, Math.min(allocated, timeLeft - MOVE_OVERHEAD));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * body of the worker thread, searches and then writes bestmove once it is
+     * allowed to, a search that fails is reported with info string and answered
+     * with the first legal move so the GUI is never left waiting and the engine
+     * takes the next command as usual
+     */
+    private void think(Position root, SearchLimits limits) {
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int fallback = MoveGenerator.generateLegalMoves(root, legal) > 0 ? legal[0] : PackedMove.NONE;
+        SearchResult result;
+        try {
+            result = search.search(root, limits);
+        } catch (RuntimeException e) {
+            search.stop();
+            send("info string search failed: " + e);
+            result = null;
+        }
+        synchronized (this) {
+            while (holding) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (result == null) {
+            send("bestmove " + (fallback == PackedMove.NONE ? "0000" : PackedMove.toString(fallback)));
+            return;
+        }
+        int[] pv = result.getPrincipalVariation();
+        String bestMove = result.getBestMove() == PackedMove.NONE ? "0000" : PackedMove.toString(result.getBestMove());
+        send("bestmove " + bestMove + (pv.length > 1 ? " ponder " + PackedMove.toString(pv[1]) : ""));
+    }
+
+    /**
+     * HELPER FUNCTION
+     * the opponent played the expected move, the ponder search goes on as a normal
+     * search that stops once its time is used up
+     */
+    private void ponderHit() {
+        long time;
+        synchronized (this) {
+            if (worker == null || !worker.isAlive()) {
+                return;
+            }
+            time = ponderTime;
+            holding = false;
+            notifyAll();
+        }
+        if (time > 0) {
+            ponderTask = new TimerTask() {
+                @Override
+                public void run() {
+                    search.stop();
+                }
+            };
+            timer.schedule(ponderTask, time);
+        }
+    }
+
+    /**
+     * HELPER FUNCTION
+     * ends the running search and waits until its bestmove has been written, stop
+     * is repeated until the worker is done so a stop that arrives before the
+     * search has started is not lost
+     */
+    private void stopSearch() {
+        if (ponderTask != null) {
+            ponderTask.cancel();
+            ponderTask = null;
+        }
+        if (worker == null) {
+            return;
+        }
+        synchronized (this) {
+            holding = false;
+            notifyAll();
+        }
+        while (worker.isAlive()) {
+            search.stop();
+            try {
+                worker.join(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        worker = null;
+    }
+
+    /**
+     * HELPER FUNCTION
+     * writes the info line of a finished iteration, mates are given in moves
+     */
+    private void sendInfo(SearchResult result) {
+        int score = result.getScore();
+        String scoreText;
+        if (result.isMateScore()) {
+            scoreText = "mate " + (score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2);
+        } else {
+            scoreText = "cp " + score;
+        }
+        long nodes = search.getNodes();
+        long millis = result.getElapsedMillis();
+        send("info depth " + result.getDepth() + " score " + scoreText + " nodes " + nodes + " nps "
+                + (millis == 0 ? nodes * 1000 : nodes * 1000 / millis) + " time " + millis + " hashfull "
+                + table.getFillPerMille() + " pv " + result.principalVariationString());
+    }
+
+    /**
+     * HELPER FUNCTION
+     * writes one line, lines from the worker and the reader never interleave
+     */
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        new ChessUCI(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+}